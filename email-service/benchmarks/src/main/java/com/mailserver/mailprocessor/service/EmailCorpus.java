@@ -0,0 +1,122 @@
+package com.mailserver.mailprocessor.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Synthetic .eml corpus for benchmarks.
+ * Set {@code -Dcorpus.dir=/path} to dump the generated files for inspection.
+ */
+final class EmailCorpus {
+
+    static final Session SESSION = Session.getInstance(new Properties());
+
+    static final String FORM_BODY = """
+            Добрый день!
+            Организация: ООО Тестовая компания
+            ФИО: Иванов Иван Иванович
+            Телефон: +7 999 123-45-67
+            Тип прибора: Счетчик электроэнергии
+            Серийный номер: ABC123456
+            ИНН: 7707123456
+            Страна: Россия
+            Проект: Проект А
+            
+            Описание проблемы: прибор не включается после грозы, нужен ремонт по гарантии.
+            """;
+
+    private EmailCorpus() {
+    }
+
+    /**
+     * Long reply thread with quoted history
+     */
+    static String thread(int replies) {
+        StringBuilder text = new StringBuilder(FORM_BODY);
+        for (int i = 0; i < replies; i++) {
+            text.append("\n> On Mon, support wrote:\n> Здравствуйте! Уточните, пожалуйста, заводской номер прибора.\n")
+                    .append("> Спасибо за обращение, ваша заявка зарегистрирована под номером ").append(1000 + i).append('\n');
+        }
+        return text.toString();
+    }
+
+    static String html(String text) {
+        StringBuilder html = new StringBuilder("<html><head><style>p{margin:0}</style></head><body><div>");
+        for (String line : text.split("\n")) {
+            html.append("<p><span style=\"font-family:Arial\">").append(line).append("</span></p>");
+        }
+        return html.append("</div></body></html>").toString();
+    }
+
+    static byte[] build(String kind) throws MessagingException, IOException {
+        MimeMessage message = new MimeMessage(SESSION);
+        message.setFrom(new InternetAddress("ivanov@test.ru"));
+        message.setRecipients(Message.RecipientType.TO, "support@example.com");
+        message.setSubject("Заявка на ремонт", "UTF-8");
+
+        switch (kind) {
+            case "plain" -> message.setText(thread(20), "UTF-8");
+            case "html" -> message.setText(html(thread(20)), "UTF-8", "html");
+            case "nested" -> message.setContent(mixed(alternative(thread(20)), attachment("photo.jpg", "image/jpeg", 64 * 1024)));
+            case "attachment" -> message.setContent(mixed(alternative(thread(5)), attachment("manual.pdf", "application/pdf", 5 * 1024 * 1024)));
+            default -> throw new IllegalArgumentException("Unknown corpus kind: " + kind);
+        }
+        message.saveChanges();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.writeTo(out);
+        byte[] eml = out.toByteArray();
+
+        String dir = System.getProperty("corpus.dir");
+        if (dir != null) {
+            Files.createDirectories(Path.of(dir));
+            Files.write(Path.of(dir, kind + ".eml"), eml);
+        }
+        return eml;
+    }
+
+    static MimeMessage parse(byte[] eml) throws MessagingException {
+        return new MimeMessage(SESSION, new ByteArrayInputStream(eml));
+    }
+
+    private static MimeBodyPart alternative(String text) throws MessagingException {
+        MimeBodyPart plain = new MimeBodyPart();
+        plain.setText(text, "UTF-8");
+        MimeBodyPart html = new MimeBodyPart();
+        html.setText(html(text), "UTF-8", "html");
+
+        MimeBodyPart wrapper = new MimeBodyPart();
+        wrapper.setContent(new MimeMultipart("alternative", plain, html));
+        return wrapper;
+    }
+
+    private static MimeMultipart mixed(MimeBodyPart body, MimeBodyPart attachment) throws MessagingException {
+        return new MimeMultipart(body, attachment);
+    }
+
+    private static MimeBodyPart attachment(String name, String type, int size) throws MessagingException {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+
+        MimeBodyPart part = new MimeBodyPart();
+        part.setDataHandler(new jakarta.activation.DataHandler(
+                new jakarta.mail.util.ByteArrayDataSource(data, type)));
+        part.setFileName(name);
+        part.setDisposition(Part.ATTACHMENT);
+        return part;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mailserver.mailprocessor.service;
+
+import com.mailserver.mailprocessor.parser.FieldExtractor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FieldExtractor against the previous per-keyword extraction of EmailParserService
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldExtractorBenchmark {
+
+    private static final String[][] KEYWORDS = {
+            {"организация", "organization"}, {"фио", "fio"}, {"имя", "fio"},
+            {"тип прибора", "deviceType"}, {"серийный номер", "serialNumber"},
+            {"заводской номер", "serialNumber"}, {"проект", "project"},
+            {"страна", "countryRegion"}, {"регион", "countryRegion"}
+    };
+
+    @Param({"plain", "thread"})
+    private String kind;
+
+    private FieldExtractor extractor;
+    private String body;
+
+    @Setup
+    public void setup() throws Exception {
+        try (InputStream in = FieldExtractorBenchmark.class.getResourceAsStream("/parser/field-keywords.txt")) {
+            extractor = FieldExtractor.load(in);
+        }
+        body = switch (kind) {
+            case "plain" -> EmailCorpus.FORM_BODY;
+            case "thread" -> EmailCorpus.thread(200);
+            default -> throw new IllegalArgumentException(kind);
+        };
+    }
+
+    @Benchmark
+    public Map<String, String> compiled() {
+        return extractor.extract(body);
+    }
+
+    /**
+     * Previous algorithm: one toLowerCase/indexOf/substring/replaceAll per keyword
+     */
+    @Benchmark
+    public Map<String, String> perKeyword() {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String[] keyword : KEYWORDS) {
+            String lowerText = body.toLowerCase();
+            int index = lowerText.indexOf(keyword[0]);
+            if (index == -1) {
+                continue;
+            }
+            String after = body.substring(index + keyword[0].length()).trim();
+            if (after.startsWith(":") || after.startsWith("=")) {
+                after = after.substring(1).trim();
+            }
+            int endIndex = after.indexOf('\n');
+            if (endIndex == -1) {
+                endIndex = Math.min(after.length(), 100);
+            }
+            String value = after.substring(0, endIndex).trim().replaceAll("[<>\\[\\]{}]", "").trim();
+            if (value.length() > 1 && !(keyword[1].equals("fio") && values.containsKey("fio"))) {
+                values.put(keyword[1], value);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,104 @@
+package com.mailserver.mailprocessor.service;
+
+import com.mailserver.mailprocessor.mapper.RequestMapper;
+import com.mailserver.mailprocessor.model.dto.AttachmentDto;
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.mailserver.mailprocessor.model.entity.Request;
+import com.mailserver.mailprocessor.model.enums.RequestCategory;
+import com.mailserver.mailprocessor.serialization.RequestAvroSerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RequestMapper conversions and Kafka JSON/Avro serialization of RequestDto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private final RequestMapper mapper = new RequestMapper();
+    private Serializer<RequestDto> serializer;
+    private final Serializer<RequestDto> avroSerializer = new RequestAvroSerializer();
+    private RequestDto dto;
+    private Request entity;
+
+    @Setup
+    public void setup() {
+        serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+
+        List<AttachmentDto> attachments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            attachments.add(AttachmentDto.builder()
+                    .fileName("photo-" + i + ".jpg")
+                    .contentType("image/jpeg")
+                    .disposition("attachment")
+                    .size(256_000L)
+                    .sha256("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef")
+                    .ref("01/23/0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef")
+                    .build());
+        }
+
+        String body = EmailCorpus.thread(20);
+        dto = RequestDto.builder()
+                .id(UUID.randomUUID())
+                .email("ivanov@test.ru")
+                .organization("ООО Тестовая компания")
+                .fio("Иванов Иван Иванович")
+                .phone("+7 999 123-45-67")
+                .deviceType("Счетчик электроэнергии")
+                .serialNumber("ABC123456")
+                .category(RequestCategory.REPAIR)
+                .inn("7707123456")
+                .countryRegion("Россия")
+                .confidenceScore(0.8f)
+                .emailSubject("Заявка на ремонт")
+                .emailBody(body)
+                .rawEmailContent(body)
+                .attachments(attachments)
+                .build();
+        entity = mapper.toEntity(dto);
+    }
+
+    /**
+     * Payload sizes are not timed, so they are printed once next to the results
+     */
+    @TearDown
+    public void reportSizes() {
+        int json = serializer.serialize("email-requests", dto).length;
+        int avro = avroSerializer.serialize("email-requests", dto).length;
+        System.out.printf("%nRequestDto payload: JSON %d bytes, Avro %d bytes (%.0f%% smaller)%n",
+                json, avro, 100.0 * (json - avro) / json);
+    }
+
+    @Benchmark
+    public Request toEntity() {
+        return mapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public RequestDto toDto() {
+        return mapper.toDto(entity);
+    }
+
+    @Benchmark
+    public byte[] kafkaJsonSerialize() {
+        return serializer.serialize("email-requests", dto);
+    }
+
+    @Benchmark
+    public byte[] kafkaAvroSerialize() {
+        return avroSerializer.serialize("email-requests", dto);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mailserver.mailprocessor.service;
+
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MIME parsing and body/attachment walking in EmailReceiverService over the synthetic corpus
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MimeBenchmark {
+
+    @Param({"plain", "html", "nested", "attachment"})
+    private String kind;
+
+    private byte[] eml;
+    private EmailReceiverService receiver;
+
+    @Setup
+    public void setup() throws Exception {
+        eml = EmailCorpus.build(kind);
+
+        Executor direct = Runnable::run;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EmailParserService parser = new EmailParserService(
+                new ClassPathResource("parser/field-keywords.txt"),
+                new ClassPathResource("parser/category-rules.txt"),
+                registry);
+        receiver = new EmailReceiverService(parser, null, direct,
+                new AttachmentExtractorService(new AttachmentStorageService(), direct, registry), null, registry);
+    }
+
+    @Benchmark
+    public String getTextFromMimeMultipart() throws Exception {
+        MimeMessage message = EmailCorpus.parse(eml);
+        Object content = message.getContent();
+        if (content instanceof MimeMultipart multipart) {
+            List<Part> attachments = new ArrayList<>();
+            return receiver.getTextFromMimeMultipart(multipart, attachments).text();
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.mailserver.mailprocessor.service;
+
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmailParserService: full parse and the body text extraction step on their own
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"plain", "html", "thread"})
+    private String kind;
+
+    private EmailParserService parser;
+    private String body;
+    private boolean html;
+
+    @Setup
+    public void setup() throws Exception {
+        parser = new EmailParserService(
+                new ClassPathResource("parser/field-keywords.txt"),
+                new ClassPathResource("parser/category-rules.txt"),
+                new SimpleMeterRegistry());
+        body = switch (kind) {
+            case "plain" -> EmailCorpus.FORM_BODY;
+            case "html" -> EmailCorpus.html(EmailCorpus.thread(20));
+            case "thread" -> EmailCorpus.thread(200);
+            default -> throw new IllegalArgumentException(kind);
+        };
+        html = EmailParserService.looksLikeHtml(body);
+    }
+
+    @Benchmark
+    public RequestDto parseEmailToRequest() {
+        return parser.parseEmailToRequest("Заявка на ремонт", body, "Иван Иванов <ivanov@test.ru>");
+    }
+
+    @Benchmark
+    public String extractText() {
+        return parser.extractText(body, html);
+    }
+}
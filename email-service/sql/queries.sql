@@ -46,13 +46,16 @@ ORDER BY created_at DESC;
 
 -- Find requests with attachments
 SELECT 
-    id,
-    email,
-    file_name,
-    file_content_type,
-    created_at
-FROM requests
-WHERE file IS NOT NULL;
+    r.id,
+    r.email,
+    a.file_name,
+    a.content_type,
+    a.size_bytes,
+    a.file_ref,
+    r.created_at
+FROM requests r
+JOIN request_attachments a ON a.request_id = r.id
+ORDER BY r.created_at DESC;
 
 -- Search by email
 SELECT * 
@@ -127,6 +130,38 @@ FROM (
     WHERE status = 'NEW'
 ) requests;
 
+-- View UID sync progress per mailbox
+SELECT 
+    mailbox,
+    uid_validity,
+    last_uid,
+    updated_at
+FROM mailbox_sync_state
+ORDER BY mailbox;
+
+-- Reprocess mailbox from a given UID (UID sync mode)
+UPDATE mailbox_sync_state
+SET 
+    last_uid = 0,
+    updated_at = NOW()
+WHERE mailbox = 'user@example.com/INBOX';
+
+-- Requests waiting to be published to Kafka
+SELECT 
+    o.request_id,
+    o.attempts,
+    o.next_attempt_at,
+    o.last_error,
+    o.created_at
+FROM request_outbox o
+WHERE o.sent_at IS NULL
+ORDER BY o.id;
+
+-- Retry stuck outbox events immediately
+UPDATE request_outbox
+SET next_attempt_at = NOW()
+WHERE sent_at IS NULL;
+
 -- Cleanup old closed requests (older than 90 days)
 DELETE FROM requests
 WHERE status = 'CLOSED'
@@ -137,3 +172,4 @@ CREATE INDEX IF NOT EXISTS idx_requests_status ON requests(status);
 CREATE INDEX IF NOT EXISTS idx_requests_email ON requests(email);
 CREATE INDEX IF NOT EXISTS idx_requests_created_at ON requests(created_at DESC);
 CREATE INDEX IF NOT EXISTS idx_requests_category ON requests(category);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_requests_message_key ON requests(message_key);
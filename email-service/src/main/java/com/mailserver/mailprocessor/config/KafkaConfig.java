@@ -14,10 +14,27 @@ public class KafkaConfig {
     @Value("${app.kafka.topic.requests}")
     private String requestsTopic;
 
+    @Value("${app.kafka.topic.requests-dlt}")
+    private String requestsDeadLetterTopic;
+
+    @Value("${app.kafka.topic.partitions:3}")
+    private int partitions;
+
     @Bean
     public NewTopic requestsTopic() {
         return TopicBuilder.name(requestsTopic)
-                .partitions(3)
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+
+    /**
+     * Failed records keep their partition, so the dead-letter topic needs as many partitions
+     */
+    @Bean
+    public NewTopic requestsDeadLetterTopic() {
+        return TopicBuilder.name(requestsDeadLetterTopic)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
@@ -0,0 +1,110 @@
+package com.mailserver.mailprocessor.config;
+
+import com.mailserver.mailprocessor.service.MailStorePool;
+import com.mailserver.mailprocessor.service.MailboxRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableConfigurationProperties(MailboxProperties.class)
+public class MailConfig {
+
+    @Value("${spring.mail.host}")
+    private String mailHost;
+
+    @Value("${spring.mail.port}")
+    private int mailPort;
+
+    @Value("${spring.mail.username}")
+    private String mailUsername;
+
+    @Value("${spring.mail.password}")
+    private String mailPassword;
+
+    @Value("${app.mail.folder}")
+    private String mailFolder;
+
+    @Value("${app.mail.pool.size:2}")
+    private int poolSize;
+
+    @Value("${app.mail.pool.keepalive-ms:60000}")
+    private long keepaliveMs;
+
+    @Value("${app.mail.pool.validate-after-ms:30000}")
+    private long validateAfterMs;
+
+    @Value("${app.mail.pipeline.parse-threads:0}")
+    private int parseThreads;
+
+    @Value("${app.mail.pipeline.queue-capacity:1000}")
+    private int parseQueueCapacity;
+
+    @Value("${app.attachments.parallelism:4}")
+    private int attachmentParallelism;
+
+    /**
+     * One connection pool per configured mailbox, or for the spring.mail account when none are listed
+     */
+    @Bean(destroyMethod = "close")
+    public MailboxRegistry mailboxRegistry(MailboxProperties properties) {
+        List<MailboxProperties.Mailbox> mailboxes = properties.getMailboxes().isEmpty()
+                ? List.of(new MailboxProperties.Mailbox())
+                : properties.getMailboxes();
+
+        List<MailStorePool> pools = new ArrayList<>();
+        for (MailboxProperties.Mailbox mailbox : mailboxes) {
+            String username = mailbox.getUsername() != null ? mailbox.getUsername() : mailUsername;
+            String folder = mailbox.getFolder() != null ? mailbox.getFolder() : mailFolder;
+            pools.add(new MailStorePool(
+                    mailbox.getName() != null ? mailbox.getName() : username + "/" + folder,
+                    mailbox.getHost() != null ? mailbox.getHost() : mailHost,
+                    mailbox.getPort() != null ? mailbox.getPort() : mailPort,
+                    username,
+                    mailbox.getPassword() != null ? mailbox.getPassword() : mailPassword,
+                    folder, poolSize, keepaliveMs, validateAfterMs));
+        }
+        return new MailboxRegistry(pools);
+    }
+
+    /**
+     * Bounded pool for MIME decoding and parsing; callers run the task themselves when it is full
+     */
+    @Bean(name = "mailParseExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor mailParseExecutor() {
+        int threads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parseQueueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "mail-parse-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Pool for streaming attachment parts into the attachment store
+     */
+    @Bean(name = "attachmentExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor attachmentExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(attachmentParallelism, attachmentParallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parseQueueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "mail-attachment-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,30 @@
+package com.mailserver.mailprocessor.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mailboxes to ingest; unset fields fall back to spring.mail.* and app.mail.folder
+ */
+@Data
+@ConfigurationProperties(prefix = "app.mail")
+public class MailboxProperties {
+
+    /**
+     * When empty, the single spring.mail account is used
+     */
+    private List<Mailbox> mailboxes = new ArrayList<>();
+
+    @Data
+    public static class Mailbox {
+        private String name;
+        private String host;
+        private Integer port;
+        private String username;
+        private String password;
+        private String folder;
+    }
+}
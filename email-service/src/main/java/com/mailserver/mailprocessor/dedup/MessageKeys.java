@@ -0,0 +1,59 @@
+package com.mailserver.mailprocessor.dedup;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * Idempotency key of an email: SHA-256 of its RFC 5322 Message-ID,
+ * or of sender, date and subject when the Message-ID is missing
+ */
+public final class MessageKeys {
+
+    private MessageKeys() {
+    }
+
+    /**
+     * Key from envelope data only, so it can be computed before the body is downloaded
+     */
+    public static String of(Message message) throws MessagingException {
+        String messageId = message instanceof MimeMessage mime ? mime.getMessageID() : null;
+        if (messageId != null && !messageId.isBlank()) {
+            return ofMessageId(messageId);
+        }
+
+        Address[] from = message.getFrom();
+        return ofHeaders(from != null && from.length > 0 ? from[0].toString() : null,
+                message.getSentDate(), message.getSubject());
+    }
+
+    public static String ofMessageId(String messageId) {
+        String id = messageId.strip();
+        if (id.startsWith("<") && id.endsWith(">")) {
+            id = id.substring(1, id.length() - 1);
+        }
+        return sha256("mid:" + id);
+    }
+
+    public static String ofHeaders(String from, Date sentDate, String subject) {
+        return sha256("hdr:" + (from != null ? from.strip().toLowerCase() : "")
+                + "\n" + (sentDate != null ? sentDate.getTime() : "")
+                + "\n" + (subject != null ? subject.strip() : ""));
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
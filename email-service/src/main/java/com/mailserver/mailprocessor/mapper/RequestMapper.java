@@ -1,9 +1,14 @@
 package com.mailserver.mailprocessor.mapper;
 
+import com.mailserver.mailprocessor.model.dto.AttachmentDto;
 import com.mailserver.mailprocessor.model.dto.RequestDto;
 import com.mailserver.mailprocessor.model.entity.Request;
+import com.mailserver.mailprocessor.model.entity.RequestAttachment;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class RequestMapper {
 
@@ -27,9 +32,7 @@ public class RequestMapper {
                 .project(dto.getProject())
                 .inn(dto.getInn())
                 .countryRegion(dto.getCountryRegion())
-                .file(dto.getFile())
-                .fileName(dto.getFileName())
-                .fileContentType(dto.getFileContentType())
+                .attachments(toAttachmentEntities(dto.getAttachments()))
                 .confidenceScore(dto.getConfidenceScore())
                 .status(dto.getStatus())
                 .aiGeneratedAnswer(dto.getAiGeneratedAnswer())
@@ -37,6 +40,7 @@ public class RequestMapper {
                 .emailSubject(dto.getEmailSubject())
                 .emailBody(dto.getEmailBody())
                 .rawEmailContent(dto.getRawEmailContent())
+                .messageKey(dto.getMessageKey())
                 .isForm(dto.getIsForm() != null ? dto.getIsForm() : false)
                 .createdAt(dto.getCreatedAt())
                 .updatedAt(dto.getUpdatedAt())
@@ -63,9 +67,7 @@ public class RequestMapper {
                 .project(entity.getProject())
                 .inn(entity.getInn())
                 .countryRegion(entity.getCountryRegion())
-                .file(entity.getFile())
-                .fileName(entity.getFileName())
-                .fileContentType(entity.getFileContentType())
+                .attachments(toAttachmentDtos(entity.getAttachments()))
                 .confidenceScore(entity.getConfidenceScore())
                 .status(entity.getStatus())
                 .aiGeneratedAnswer(entity.getAiGeneratedAnswer())
@@ -73,9 +75,56 @@ public class RequestMapper {
                 .emailSubject(entity.getEmailSubject())
                 .emailBody(entity.getEmailBody())
                 .rawEmailContent(entity.getRawEmailContent())
+                .messageKey(entity.getMessageKey())
                 .isForm(entity.getIsForm())
                 .createdAt(entity.getCreatedAt())
                 .updatedAt(entity.getUpdatedAt())
                 .build();
     }
+
+    /**
+     * Convert attachment DTOs to entities
+     */
+    private List<RequestAttachment> toAttachmentEntities(List<AttachmentDto> dtos) {
+        List<RequestAttachment> entities = new ArrayList<>();
+        if (dtos == null) {
+            return entities;
+        }
+
+        for (AttachmentDto dto : dtos) {
+            entities.add(RequestAttachment.builder()
+                    .id(dto.getId())
+                    .fileName(dto.getFileName())
+                    .contentType(dto.getContentType())
+                    .disposition(dto.getDisposition())
+                    .size(dto.getSize())
+                    .sha256(dto.getSha256())
+                    .ref(dto.getRef())
+                    .build());
+        }
+        return entities;
+    }
+
+    /**
+     * Convert attachment entities to DTOs
+     */
+    private List<AttachmentDto> toAttachmentDtos(List<RequestAttachment> entities) {
+        List<AttachmentDto> dtos = new ArrayList<>();
+        if (entities == null) {
+            return dtos;
+        }
+
+        for (RequestAttachment entity : entities) {
+            dtos.add(AttachmentDto.builder()
+                    .id(entity.getId())
+                    .fileName(entity.getFileName())
+                    .contentType(entity.getContentType())
+                    .disposition(entity.getDisposition())
+                    .size(entity.getSize())
+                    .sha256(entity.getSha256())
+                    .ref(entity.getRef())
+                    .build());
+        }
+        return dtos;
+    }
 }
@@ -0,0 +1,37 @@
+package com.mailserver.mailprocessor.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Attachment metadata; content lives in the attachment store under {@code ref}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AttachmentDto {
+
+    private UUID id;
+
+    private String fileName;
+
+    private String contentType;
+
+    /**
+     * attachment or inline
+     */
+    private String disposition;
+
+    private Long size;
+
+    private String sha256;
+
+    private String ref;
+}
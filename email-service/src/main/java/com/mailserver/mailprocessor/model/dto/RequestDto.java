@@ -10,6 +10,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -41,11 +43,8 @@ public class RequestDto {
     
     private String countryRegion;
     
-    private byte[] file;
-    
-    private String fileName;
-    
-    private String fileContentType;
+    @Builder.Default
+    private List<AttachmentDto> attachments = new ArrayList<>();
     
     private Float confidenceScore;
     
@@ -71,4 +70,5 @@ public class RequestDto {
     private String emailSubject;
     private String emailBody;
     private String rawEmailContent;
+    private String messageKey;
 }
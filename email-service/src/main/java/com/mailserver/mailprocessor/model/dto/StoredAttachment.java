@@ -0,0 +1,25 @@
+package com.mailserver.mailprocessor.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Attachment content saved in the attachment store
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredAttachment {
+
+    /**
+     * Storage key relative to the store root
+     */
+    private String ref;
+
+    private String sha256;
+
+    private long size;
+}
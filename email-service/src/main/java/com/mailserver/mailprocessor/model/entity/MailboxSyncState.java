@@ -0,0 +1,38 @@
+package com.mailserver.mailprocessor.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last processed IMAP UID per mailbox folder
+ */
+@Entity
+@Table(name = "mailbox_sync_state")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailboxSyncState {
+
+    /**
+     * Mailbox key in form "username@host/folder"
+     */
+    @Id
+    private String mailbox;
+
+    @Column(name = "uid_validity", nullable = false)
+    private Long uidValidity;
+
+    @Column(name = "last_uid", nullable = false)
+    private Long lastUid;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,59 @@
+package com.mailserver.mailprocessor.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pending Kafka publication of a request, written in the same transaction as the request
+ */
+@Entity
+@Table(name = "request_outbox", indexes = {
+        @Index(name = "idx_request_outbox_pending", columnList = "sent_at, next_attempt_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    /**
+     * Sequence rather than identity, so inserts can be JDBC-batched
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "request_outbox_seq")
+    @SequenceGenerator(name = "request_outbox_seq", sequenceName = "request_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "request_id", nullable = false)
+    private UUID requestId;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Null while the event is not yet acknowledged by Kafka
+     */
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
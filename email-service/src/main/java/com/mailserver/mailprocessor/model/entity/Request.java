@@ -11,10 +11,14 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "requests")
+@Table(name = "requests", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_requests_message_key", columnNames = "message_key")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -50,14 +54,10 @@ public class Request {
     @Column(name = "country_region")
     private String countryRegion;
     
-    @Lob
-    private byte[] file;
-    
-    @Column(name = "file_name")
-    private String fileName;
-    
-    @Column(name = "file_content_type")
-    private String fileContentType;
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "request_id", nullable = false)
+    @Builder.Default
+    private List<RequestAttachment> attachments = new ArrayList<>();
     
     @Column(name = "confidence_score")
     private Float confidenceScore;
@@ -82,6 +82,12 @@ public class Request {
     @Column(name = "raw_email_content", columnDefinition = "TEXT")
     private String rawEmailContent;
     
+    /**
+     * Idempotency key derived from the Message-ID, see MessageKeys
+     */
+    @Column(name = "message_key", length = 64)
+    private String messageKey;
+    
     @Column(name = "is_form")
     @Builder.Default
     private Boolean isForm = false;
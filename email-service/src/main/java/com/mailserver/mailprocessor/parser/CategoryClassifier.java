@@ -0,0 +1,130 @@
+package com.mailserver.mailprocessor.parser;
+
+import com.mailserver.mailprocessor.model.enums.RequestCategory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyword-scoring category classifier.
+ * All rules are compiled into one automaton, so subject and body are scanned once
+ * regardless of how many keywords are configured.
+ */
+public final class CategoryClassifier {
+
+    /**
+     * Winning category and its share of the total keyword score (0-1)
+     */
+    public record Classification(RequestCategory category, float score) {
+    }
+
+    private final KeywordAutomaton automaton;
+
+    /**
+     * Category ordinal and weight of every keyword, by keyword index
+     */
+    private final int[] keywordCategories;
+    private final int[] keywordWeights;
+
+    /**
+     * Categories in rule order, used to break ties
+     */
+    private final List<RequestCategory> priority;
+
+    private CategoryClassifier(List<String> keywords, List<RequestCategory> categories,
+                               List<Integer> weights, List<RequestCategory> priority) {
+        this.automaton = new KeywordAutomaton(keywords);
+        this.keywordCategories = categories.stream().mapToInt(Enum::ordinal).toArray();
+        this.keywordWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+        this.priority = priority;
+    }
+
+    /**
+     * Load rules: one {@code CATEGORY: keyword, keyword=weight} per line, {@code #} starts a comment
+     */
+    public static CategoryClassifier load(InputStream in) throws IOException {
+        List<String> keywords = new ArrayList<>();
+        List<RequestCategory> categories = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        List<RequestCategory> priority = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    throw new IOException("Invalid category rule line: " + line);
+                }
+
+                RequestCategory category;
+                try {
+                    category = RequestCategory.valueOf(line.substring(0, colon).strip());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown category in rule line: " + line, e);
+                }
+                if (!priority.contains(category)) {
+                    priority.add(category);
+                }
+
+                for (String rule : line.substring(colon + 1).split(",")) {
+                    if (rule.isBlank()) {
+                        continue;
+                    }
+                    String keyword = rule.strip();
+                    int weight = 1;
+                    int eq = keyword.lastIndexOf('=');
+                    if (eq > 0) {
+                        weight = Integer.parseInt(keyword.substring(eq + 1).strip());
+                        keyword = keyword.substring(0, eq).strip();
+                    }
+                    keywords.add(keyword.toLowerCase());
+                    categories.add(category);
+                    weights.add(weight);
+                }
+            }
+        }
+        return new CategoryClassifier(keywords, categories, weights, priority);
+    }
+
+    /**
+     * Score all categories over subject and body and pick the best one
+     */
+    public Classification classify(String subject, String body) {
+        int[] scores = new int[RequestCategory.values().length];
+        KeywordAutomaton.MatchListener listener = (keyword, start) -> {
+            scores[keywordCategories[keyword]] += keywordWeights[keyword];
+            return true;
+        };
+        if (subject != null) {
+            automaton.scan(subject, listener);
+        }
+        if (body != null) {
+            automaton.scan(body, listener);
+        }
+
+        RequestCategory best = null;
+        int total = 0;
+        for (RequestCategory category : priority) {
+            int score = scores[category.ordinal()];
+            total += score;
+            if (score > 0 && (best == null || score > scores[best.ordinal()])) {
+                best = category;
+            }
+        }
+
+        if (best == null) {
+            return new Classification(RequestCategory.OTHER, 0f);
+        }
+        return new Classification(best, (float) scores[best.ordinal()] / total);
+    }
+}
@@ -0,0 +1,130 @@
+package com.mailserver.mailprocessor.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts "label: value" fields from email text in a single pass.
+ * <p>
+ * Labels come from a keyword table with lines like {@code fio: фио, имя}.
+ * For every field the first label in table order that has a value wins.
+ */
+public final class FieldExtractor {
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final KeywordAutomaton automaton;
+
+    /**
+     * Label indexes per field, in priority order
+     */
+    private final Map<String, int[]> fieldLabels;
+
+    public FieldExtractor(Map<String, List<String>> table) {
+        List<String> labels = new ArrayList<>();
+        fieldLabels = new LinkedHashMap<>();
+
+        for (Map.Entry<String, List<String>> entry : table.entrySet()) {
+            int[] indexes = new int[entry.getValue().size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = labels.size();
+                labels.add(entry.getValue().get(i));
+            }
+            fieldLabels.put(entry.getKey(), indexes);
+        }
+
+        automaton = new KeywordAutomaton(labels);
+    }
+
+    /**
+     * Load keyword table: one {@code field: label, label} per line, {@code #} starts a comment
+     */
+    public static FieldExtractor load(InputStream in) throws IOException {
+        Map<String, List<String>> table = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    throw new IOException("Invalid keyword table line: " + line);
+                }
+
+                List<String> labels = table.computeIfAbsent(line.substring(0, colon).strip(), k -> new ArrayList<>());
+                for (String label : line.substring(colon + 1).split(",")) {
+                    if (!label.isBlank()) {
+                        labels.add(label.strip().toLowerCase());
+                    }
+                }
+            }
+        }
+        return new FieldExtractor(table);
+    }
+
+    /**
+     * Field values found in text, keyed by field name
+     */
+    public Map<String, String> extract(String text) {
+        int[] first = automaton.firstOccurrences(text);
+        Map<String, String> values = new LinkedHashMap<>();
+
+        for (Map.Entry<String, int[]> field : fieldLabels.entrySet()) {
+            for (int label : field.getValue()) {
+                if (first[label] < 0) {
+                    continue;
+                }
+                String value = valueAt(text, first[label] + automaton.keywordLength(label));
+                if (value != null) {
+                    values.put(field.getKey(), value);
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Value after a label: optional ':' or '=', then the rest of the line (at most 100 chars when
+     * there is no line break), without bracket artifacts
+     */
+    static String valueAt(String text, int from) {
+        int end = text.length();
+        int start = skipWhitespace(text, from, end);
+        if (start < end && (text.charAt(start) == ':' || text.charAt(start) == '=')) {
+            start = skipWhitespace(text, start + 1, end);
+        }
+
+        int lineEnd = text.indexOf('\n', start);
+        int valueEnd = lineEnd >= 0 ? lineEnd : Math.min(end, start + MAX_VALUE_LENGTH);
+
+        StringBuilder value = new StringBuilder(valueEnd - start);
+        for (int i = start; i < valueEnd; i++) {
+            char c = text.charAt(i);
+            if (c != '<' && c != '>' && c != '[' && c != ']' && c != '{' && c != '}') {
+                value.append(c);
+            }
+        }
+
+        String result = value.toString().trim();
+        return result.length() > 1 ? result : null;
+    }
+
+    private static int skipWhitespace(String text, int from, int end) {
+        int i = from;
+        while (i < end && text.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+}
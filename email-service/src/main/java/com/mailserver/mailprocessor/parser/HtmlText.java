@@ -0,0 +1,339 @@
+package com.mailserver.mailprocessor.parser;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming HTML-to-text conversion: one pass over the markup without building a DOM.
+ * <p>
+ * Block elements become line breaks so "label: value" lines survive, script/style/head
+ * content is dropped, and quoted reply history is skipped: {@code blockquote} and signature
+ * containers are left out, and known quote containers (Gmail, Outlook, Yahoo, Thunderbird)
+ * end the text, as everything after them is history. Signatures can be kept instead, after a
+ * {@code "-- "} delimiter line that {@link QuoteTrimmer} recognizes.
+ */
+public final class HtmlText {
+
+    private static final Set<String> BLOCK_TAGS = Set.of(
+            "p", "div", "li", "tr", "table", "ul", "ol", "dl", "dt", "dd", "hr", "pre",
+            "h1", "h2", "h3", "h4", "h5", "h6", "section", "article", "header", "footer",
+            "address", "center", "form", "fieldset");
+
+    /**
+     * Elements whose content is never text
+     */
+    private static final Set<String> RAW_TAGS = Set.of("script", "style", "head", "title", "noscript", "template");
+
+    /**
+     * Class or id fragments of containers that start quoted history
+     */
+    private static final String[] QUOTE_MARKERS = {
+            "gmail_quote", "yahoo_quoted", "moz-cite-prefix", "divrplyfwdmsg", "stopspelling", "appendonsend"};
+
+    /**
+     * Class or id fragments of signature containers
+     */
+    private static final String[] SIGNATURE_MARKERS = {"gmail_signature", "moz-signature", "signature"};
+
+    private static final Map<String, String> ENTITIES = Map.ofEntries(
+            Map.entry("nbsp", " "), Map.entry("amp", "&"), Map.entry("lt", "<"), Map.entry("gt", ">"),
+            Map.entry("quot", "\""), Map.entry("apos", "'"), Map.entry("laquo", "«"), Map.entry("raquo", "»"),
+            Map.entry("ndash", "–"), Map.entry("mdash", "—"), Map.entry("hellip", "…"), Map.entry("copy", "©"),
+            Map.entry("reg", "®"), Map.entry("trade", "™"), Map.entry("bull", "•"), Map.entry("middot", "·"),
+            Map.entry("ldquo", "“"), Map.entry("rdquo", "”"), Map.entry("lsquo", "‘"), Map.entry("rsquo", "’"),
+            Map.entry("shy", ""), Map.entry("zwnj", ""), Map.entry("zwj", ""));
+
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    private final String html;
+    private final boolean keepSignature;
+    private final StringBuilder out;
+    private boolean pendingSpace;
+
+    /**
+     * Tag being skipped with its nesting depth, null while emitting text
+     */
+    private String skipTag;
+    private int skipDepth;
+
+    private HtmlText(String html, boolean keepSignature) {
+        this.html = html;
+        this.keepSignature = keepSignature;
+        // Markup usually takes most of an HTML email
+        this.out = new StringBuilder(Math.min(html.length() / 4 + 16, 4096));
+    }
+
+    /**
+     * Visible text of an HTML document, one line per block
+     */
+    public static String toText(String html) {
+        return toText(html, false);
+    }
+
+    /**
+     * Visible text of an HTML document, one line per block
+     *
+     * @param keepSignature emit signature containers after a {@code "-- "} line instead of dropping them
+     */
+    public static String toText(String html, boolean keepSignature) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+        return new HtmlText(html, keepSignature).convert();
+    }
+
+    private String convert() {
+        int n = html.length();
+        int i = 0;
+        while (i < n) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                i = tag(i);
+                if (i < 0) {
+                    break;
+                }
+            } else if (skipTag != null) {
+                i++;
+            } else if (c == '&') {
+                i = entity(i);
+            } else {
+                text(c);
+                i++;
+            }
+        }
+        return out.toString().strip();
+    }
+
+    /**
+     * Handle markup starting at '<'
+     *
+     * @return index after the markup, -1 to stop converting
+     */
+    private int tag(int start) {
+        int n = html.length();
+        if (start + 1 >= n) {
+            return n;
+        }
+
+        char next = html.charAt(start + 1);
+        if (next == '!') {
+            if (html.startsWith("<!--", start)) {
+                int end = html.indexOf("-->", start + 4);
+                return end < 0 ? n : end + 3;
+            }
+            return skipPast(start, '>');
+        }
+        if (next == '?') {
+            return skipPast(start, '>');
+        }
+
+        boolean closing = next == '/';
+        int nameStart = closing ? start + 2 : start + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < n && Character.isLetterOrDigit(html.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        if (nameEnd == nameStart) {
+            // Not a tag, e.g. "a < b"
+            if (skipTag == null) {
+                text('<');
+            }
+            return start + 1;
+        }
+
+        int end = tagEnd(nameEnd);
+        String name = html.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT);
+        boolean selfClosing = end > 1 && html.charAt(end - 2) == '/';
+
+        if (skipTag != null) {
+            if (name.equals(skipTag)) {
+                skipDepth += closing ? -1 : (selfClosing ? 0 : 1);
+                if (skipDepth == 0) {
+                    skipTag = null;
+                    lineBreak();
+                }
+            }
+            return end;
+        }
+
+        if (closing) {
+            if (BLOCK_TAGS.contains(name)) {
+                lineBreak();
+            }
+            return end;
+        }
+
+        if (RAW_TAGS.contains(name) && !selfClosing) {
+            return skipRaw(name, end);
+        }
+
+        if (name.equals("div") || name.equals("hr") || name.equals("span") || name.equals("table")) {
+            String attributes = html.substring(nameEnd, end).toLowerCase(Locale.ROOT);
+            if (containsAny(attributes, QUOTE_MARKERS)) {
+                return -1;
+            }
+            if (!selfClosing && !name.equals("hr") && containsAny(attributes, SIGNATURE_MARKERS)) {
+                if (keepSignature) {
+                    lineBreak();
+                    out.append("-- \n");
+                } else {
+                    startSkip(name);
+                }
+                return end;
+            }
+        }
+
+        switch (name) {
+            case "blockquote" -> {
+                if (!selfClosing) {
+                    startSkip(name);
+                }
+            }
+            case "br" -> newLine();
+            case "td", "th" -> pendingSpace = true;
+            default -> {
+                if (BLOCK_TAGS.contains(name)) {
+                    lineBreak();
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Index after the '>' closing a tag, ignoring '>' inside quoted attribute values
+     */
+    private int tagEnd(int from) {
+        int n = html.length();
+        char quote = 0;
+        for (int i = from; i < n; i++) {
+            char c = html.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Skip the content of a raw text element up to its closing tag
+     */
+    private int skipRaw(String name, int from) {
+        int n = html.length();
+        for (int i = html.indexOf("</", from); i >= 0; i = html.indexOf("</", i + 2)) {
+            if (html.regionMatches(true, i + 2, name, 0, name.length())) {
+                return skipPast(i, '>');
+            }
+        }
+        return n;
+    }
+
+    private int skipPast(int from, char c) {
+        int end = html.indexOf(c, from);
+        return end < 0 ? html.length() : end + 1;
+    }
+
+    private void startSkip(String name) {
+        skipTag = name;
+        skipDepth = 1;
+    }
+
+    /**
+     * Decode a character reference starting at '&'
+     */
+    private int entity(int start) {
+        int n = html.length();
+        int semicolon = -1;
+        for (int i = start + 1; i < n && i <= start + MAX_ENTITY_LENGTH; i++) {
+            char c = html.charAt(i);
+            if (c == ';') {
+                semicolon = i;
+                break;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '#') {
+                break;
+            }
+        }
+        if (semicolon < 0) {
+            text('&');
+            return start + 1;
+        }
+
+        String name = html.substring(start + 1, semicolon);
+        String decoded = null;
+        if (name.startsWith("#")) {
+            try {
+                int codePoint = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X')
+                        ? Integer.parseInt(name.substring(2), 16)
+                        : Integer.parseInt(name.substring(1));
+                decoded = codePoint == 0xA0 ? " " : new String(Character.toChars(codePoint));
+            } catch (IllegalArgumentException e) {
+                decoded = null;
+            }
+        } else {
+            decoded = ENTITIES.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        if (decoded == null) {
+            text('&');
+            return start + 1;
+        }
+        for (int i = 0; i < decoded.length(); i++) {
+            text(decoded.charAt(i));
+        }
+        return semicolon + 1;
+    }
+
+    private void text(char c) {
+        if (Character.isWhitespace(c) || c == ' ') {
+            pendingSpace = true;
+            return;
+        }
+        if (pendingSpace && !atLineStart()) {
+            out.append(' ');
+        }
+        pendingSpace = false;
+        out.append(c);
+    }
+
+    /**
+     * End the current line unless it is empty
+     */
+    private void lineBreak() {
+        pendingSpace = false;
+        if (!atLineStart()) {
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Explicit line break; keeps at most one empty line
+     */
+    private void newLine() {
+        pendingSpace = false;
+        int len = out.length();
+        if (len > 0 && !(len > 1 && out.charAt(len - 1) == '\n' && out.charAt(len - 2) == '\n')) {
+            out.append('\n');
+        }
+    }
+
+    private boolean atLineStart() {
+        return out.isEmpty() || out.charAt(out.length() - 1) == '\n';
+    }
+
+    private static boolean containsAny(String text, String[] fragments) {
+        for (String fragment : fragments) {
+            if (text.contains(fragment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
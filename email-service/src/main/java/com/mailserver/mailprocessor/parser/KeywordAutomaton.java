@@ -0,0 +1,172 @@
+package com.mailserver.mailprocessor.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword set, compiled to a dense DFA.
+ * Matching is case-insensitive via a char-to-symbol table, so the text is scanned once
+ * without building a lowercase copy and match offsets refer to the original text.
+ */
+public final class KeywordAutomaton {
+
+    private static final int[] NO_OUTPUT = new int[0];
+
+    /**
+     * Receives keyword index and start offset of every match, in text order
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * @return false to stop scanning
+         */
+        boolean onMatch(int keyword, int start);
+    }
+
+    private final int[] keywordLengths;
+
+    /**
+     * Symbol of every char (case-folded); 0 for chars that occur in no keyword
+     */
+    private final char[] symbols;
+    private final int alphabetSize;
+
+    /**
+     * Transition table: next state is delta[state * alphabetSize + symbol]
+     */
+    private final int[] delta;
+    private final int[][] output;
+
+    public KeywordAutomaton(List<String> keywords) {
+        keywordLengths = new int[keywords.size()];
+
+        // Case-folded alphabet of all keyword chars, symbol 0 is "any other char"
+        Map<Character, Integer> alphabet = new TreeMap<>();
+        for (String keyword : keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                alphabet.putIfAbsent(Character.toLowerCase(keyword.charAt(i)), alphabet.size() + 1);
+            }
+        }
+        alphabetSize = alphabet.size() + 1;
+        symbols = new char[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            Integer symbol = alphabet.get(Character.toLowerCase((char) c));
+            symbols[c] = symbol != null ? (char) symbol.intValue() : 0;
+        }
+
+        // Build trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> outputs = new ArrayList<>();
+        trie.add(newRow());
+        outputs.add(new ArrayList<>());
+
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Empty keyword at index " + k);
+            }
+            keywordLengths[k] = keyword.length();
+
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = symbols[keyword.charAt(i)];
+                if (trie.get(state)[symbol] < 0) {
+                    trie.get(state)[symbol] = trie.size();
+                    trie.add(newRow());
+                    outputs.add(new ArrayList<>());
+                }
+                state = trie.get(state)[symbol];
+            }
+            outputs.get(state).add(k);
+        }
+
+        // BFS over the trie: missing edges point where the failure link would lead,
+        // which turns the trie into a DFA; outputs of suffix states are merged in
+        int states = trie.size();
+        int[] fail = new int[states];
+        delta = new int[states * alphabetSize];
+        Deque<Integer> queue = new ArrayDeque<>();
+
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int target = trie.get(0)[symbol];
+            delta[symbol] = Math.max(target, 0);
+            if (target > 0) {
+                queue.add(target);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            outputs.get(s).addAll(outputs.get(fail[s]));
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int target = trie.get(s)[symbol];
+                if (target > 0) {
+                    fail[target] = delta[fail[s] * alphabetSize + symbol];
+                    delta[s * alphabetSize + symbol] = target;
+                    queue.add(target);
+                } else {
+                    delta[s * alphabetSize + symbol] = delta[fail[s] * alphabetSize + symbol];
+                }
+            }
+        }
+
+        output = new int[states][];
+        for (int s = 0; s < states; s++) {
+            List<Integer> out = outputs.get(s);
+            output[s] = out.isEmpty() ? NO_OUTPUT : out.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public int size() {
+        return keywordLengths.length;
+    }
+
+    public int keywordLength(int keyword) {
+        return keywordLengths[keyword];
+    }
+
+    /**
+     * Scan text once, reporting every keyword occurrence
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = delta[state * alphabetSize + symbols[text.charAt(i)]];
+
+            int[] matches = output[state];
+            for (int m = 0; m < matches.length; m++) {
+                int keyword = matches[m];
+                if (!listener.onMatch(keyword, i - keywordLengths[keyword] + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Offset of the first occurrence of every keyword, -1 when absent
+     */
+    public int[] firstOccurrences(CharSequence text) {
+        int[] first = new int[keywordLengths.length];
+        Arrays.fill(first, -1);
+        int[] remaining = {first.length};
+        scan(text, (keyword, start) -> {
+            if (first[keyword] < 0) {
+                first[keyword] = start;
+                remaining[0]--;
+            }
+            return remaining[0] > 0;
+        });
+        return first;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
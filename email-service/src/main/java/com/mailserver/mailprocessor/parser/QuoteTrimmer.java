@@ -0,0 +1,159 @@
+package com.mailserver.mailprocessor.parser;
+
+import java.util.regex.Pattern;
+
+/**
+ * Cuts quoted reply history and signatures from plain email text, so classification only
+ * sees what the sender wrote in this message. Field extraction keeps the signature, where
+ * contacts usually are.
+ * <p>
+ * Lines quoted with {@code >} are dropped; text is cut at the "Original Message" separator,
+ * at an Outlook-style header block, at an attribution line ("... wrote:", "... написал(а):")
+ * followed by quoted text, and at the {@code "-- "} signature delimiter unless the signature
+ * is kept. If nothing is left the text is returned unchanged.
+ */
+public final class QuoteTrimmer {
+
+    private static final Pattern SEPARATOR = Pattern.compile(
+            "-{2,}\\s*(original message|исходное сообщение)\\s*-{2,}|_{10,}",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private static final Pattern ATTRIBUTION = Pattern.compile(
+            "(wrote|написал|написала|написал\\(а\\)|пишет)\\s*:$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    /**
+     * Start of an attribution wrapped over two lines
+     */
+    private static final Pattern ATTRIBUTION_START = Pattern.compile("^(on|в|am|le)\\s",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private static final Pattern HEADER_FROM = Pattern.compile("^(from|от)\\s*:",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private static final Pattern HEADER_FIELD = Pattern.compile("^(sent|date|to|subject|отправлено|дата|кому|тема)\\s*:",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private static final int HEADER_LOOKAHEAD = 3;
+
+    private QuoteTrimmer() {
+    }
+
+    public static String trim(String text) {
+        return trim(text, false);
+    }
+
+    /**
+     * @param keepSignature keep the signature and its delimiter, cutting only quoted history
+     */
+    public static String trim(String text, boolean keepSignature) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder out = new StringBuilder(Math.min(text.length(), 1024));
+        int lastLineStart = -1;
+        String lastLine = null;
+
+        int n = text.length();
+        for (int start = 0; start < n; ) {
+            int end = lineEnd(text, start);
+            int next = end + 1;
+            if (isQuoted(text, start, end)) {
+                start = next;
+                continue;
+            }
+            String line = text.substring(start, end > start && text.charAt(end - 1) == '\r' ? end - 1 : end);
+            String stripped = line.strip();
+            start = next;
+
+            if (isSignatureDelimiter(line, stripped)) {
+                if (!keepSignature) {
+                    break;
+                }
+            } else if (isSeparator(stripped) || isHeaderBlock(text, next, stripped)) {
+                break;
+            }
+            if (isAttribution(text, next, stripped)) {
+                if (lastLine != null && ATTRIBUTION_START.matcher(lastLine).find()
+                        && !ATTRIBUTION_START.matcher(stripped).find()) {
+                    out.setLength(lastLineStart);
+                }
+                break;
+            }
+
+            if (!stripped.isEmpty()) {
+                lastLineStart = out.length();
+                lastLine = stripped;
+            }
+            out.append(line).append('\n');
+        }
+
+        String trimmed = out.toString().strip();
+        return trimmed.isEmpty() ? text.strip() : trimmed;
+    }
+
+    private static boolean isSignatureDelimiter(String line, String stripped) {
+        return line.equals("-- ") || stripped.equals("--");
+    }
+
+    /**
+     * "Original Message" separator
+     */
+    private static boolean isSeparator(String stripped) {
+        if (stripped.isEmpty() || (stripped.charAt(0) != '-' && stripped.charAt(0) != '_')) {
+            return false;
+        }
+        return SEPARATOR.matcher(stripped).matches();
+    }
+
+    /**
+     * "From:" followed by other header fields within the next few lines
+     */
+    private static boolean isHeaderBlock(String text, int from, String stripped) {
+        if (stripped.indexOf(':') < 0 || !HEADER_FROM.matcher(stripped).find()) {
+            return false;
+        }
+        int start = from;
+        for (int i = 0; i < HEADER_LOOKAHEAD && start < text.length(); i++) {
+            int end = lineEnd(text, start);
+            if (HEADER_FIELD.matcher(text.substring(start, end).strip()).find()) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    /**
+     * "... wrote:" naming an address or followed by quoted text
+     */
+    private static boolean isAttribution(String text, int from, String stripped) {
+        if (!stripped.endsWith(":") || !ATTRIBUTION.matcher(stripped).find()) {
+            return false;
+        }
+        return stripped.indexOf('@') >= 0 || nextIsQuoted(text, from);
+    }
+
+    private static boolean nextIsQuoted(String text, int from) {
+        return isQuoted(text, from, text.length());
+    }
+
+    /**
+     * First non-whitespace character in the range is '>'
+     */
+    private static boolean isQuoted(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '>';
+            }
+        }
+        return false;
+    }
+
+    private static int lineEnd(String text, int from) {
+        int end = text.indexOf('\n', from);
+        return end < 0 ? text.length() : end;
+    }
+}
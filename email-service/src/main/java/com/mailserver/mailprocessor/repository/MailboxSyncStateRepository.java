@@ -0,0 +1,9 @@
+package com.mailserver.mailprocessor.repository;
+
+import com.mailserver.mailprocessor.model.entity.MailboxSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MailboxSyncStateRepository extends JpaRepository<MailboxSyncState, String> {
+}
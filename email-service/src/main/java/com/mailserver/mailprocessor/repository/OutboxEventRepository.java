@@ -0,0 +1,39 @@
+package com.mailserver.mailprocessor.repository;
+
+import com.mailserver.mailprocessor.model.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lock due events, skipping rows another relay has locked; the lock lasts until the transaction ends
+     */
+    @Query(value = "SELECT * FROM request_outbox WHERE sent_at IS NULL AND next_attempt_at <= :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockDue(LocalDateTime now, int limit);
+
+    /**
+     * Hide claimed events from other relays until {@code until}
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :until WHERE e.id IN :ids")
+    int claim(Collection<Long> ids, LocalDateTime until);
+
+    long countBySentAtIsNull();
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt, e.lastError = NULL WHERE e.id IN :ids")
+    int markSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :before")
+    int deleteSentBefore(LocalDateTime before);
+}
@@ -2,9 +2,12 @@ package com.mailserver.mailprocessor.repository;
 
 import com.mailserver.mailprocessor.model.entity.Request;
 import com.mailserver.mailprocessor.model.enums.RequestStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,4 +17,18 @@ public interface RequestRepository extends JpaRepository<Request, UUID> {
     List<Request> findByStatus(RequestStatus status);
     
     List<Request> findByEmail(String email);
+
+    boolean existsByMessageKey(String messageKey);
+
+    /**
+     * Keyset page of message keys, for warming up the deduplication filter
+     */
+    @Query("SELECT r.messageKey FROM Request r WHERE r.messageKey > :after ORDER BY r.messageKey")
+    List<String> findMessageKeysAfter(String after, Pageable pageable);
+
+    /**
+     * Requests with their attachments loaded in the same query
+     */
+    @Query("SELECT DISTINCT r FROM Request r LEFT JOIN FETCH r.attachments WHERE r.id IN :ids")
+    List<Request> findAllWithAttachmentsById(Collection<UUID> ids);
 }
@@ -2,51 +2,151 @@ package com.mailserver.mailprocessor.scheduler;
 
 import com.mailserver.mailprocessor.model.dto.RequestDto;
 import com.mailserver.mailprocessor.service.EmailReceiverService;
+import com.mailserver.mailprocessor.service.ImapIdleService;
+import com.mailserver.mailprocessor.service.MailStorePool;
+import com.mailserver.mailprocessor.service.MailboxLockService;
+import com.mailserver.mailprocessor.service.MailboxRegistry;
 import com.mailserver.mailprocessor.service.RequestService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 
+/**
+ * Adaptive email poller with one worker per configured mailbox. Every worker has its own
+ * schedule, batch size and back-off, and polls only while this node owns the mailbox.
+ */
 @Component
 @Slf4j
 public class EmailPollingScheduler {
 
+    @Value("${app.mail.batch-size}")
+    private int batchSize;
+
+    @Value("${app.mail.adaptive.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${app.mail.adaptive.min-delay-ms:1000}")
+    private long minDelayMs;
+
+    /**
+     * Upper bound for the idle back-off
+     */
+    @Value("${app.mail.poll-interval-ms}")
+    private long maxDelayMs;
+
+    private final MailboxRegistry mailboxRegistry;
     private final EmailReceiverService emailReceiverService;
     private final RequestService requestService;
+    private final MailboxLockService mailboxLockService;
+    private final ImapIdleService imapIdleService;
+    private final MeterRegistry meterRegistry;
 
-    public EmailPollingScheduler(EmailReceiverService emailReceiverService,
-                                RequestService requestService) {
+    private volatile List<MailboxWorker> workers = List.of();
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    public EmailPollingScheduler(MailboxRegistry mailboxRegistry,
+                                EmailReceiverService emailReceiverService,
+                                RequestService requestService,
+                                MailboxLockService mailboxLockService,
+                                ObjectProvider<ImapIdleService> imapIdleServiceProvider,
+                                MeterRegistry meterRegistry) {
+        this.mailboxRegistry = mailboxRegistry;
         this.emailReceiverService = emailReceiverService;
         this.requestService = requestService;
+        this.mailboxLockService = mailboxLockService;
+        this.imapIdleService = imapIdleServiceProvider.getIfAvailable();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Start one polling schedule per mailbox once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        workers = mailboxRegistry.getPools().stream()
+                .map(pool -> new MailboxWorker(pool, batchSize, maxBatchSize, minDelayMs, maxDelayMs, meterRegistry))
+                .toList();
+
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(workers.size());
+        taskScheduler.setThreadNamePrefix("mail-poll-");
+        taskScheduler.initialize();
+
+        for (MailboxWorker worker : workers) {
+            taskScheduler.schedule(() -> poll(worker), worker::nextExecution);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    public List<MailboxWorker> getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Messages still waiting in all owned mailboxes after the last polls
+     */
+    public int getBacklog() {
+        return workers.stream().mapToInt(MailboxWorker::getBacklog).sum();
     }
 
     /**
-     * Poll emails at configured interval
+     * Poll one mailbox and compute the delay before its next poll
      */
-    @Scheduled(fixedDelayString = "${app.mail.poll-interval-ms}")
-    public void pollEmails() {
+    void poll(MailboxWorker worker) {
+        MailStorePool pool = worker.getPool();
+
+        if (!mailboxLockService.tryAcquire(pool.getMailboxKey())) {
+            log.debug("Mailbox {} is owned by another node, skipping poll", pool.getName());
+            worker.standBy(false);
+            return;
+        }
+        if (imapIdleService != null && imapIdleService.isIdleActive(pool.getMailboxKey())) {
+            log.debug("IMAP IDLE is active for {}, skipping poll", pool.getName());
+            worker.standBy(true);
+            return;
+        }
+
+        int limit = worker.getBatchSize();
         try {
-            log.info("Starting email polling...");
-            
+            log.info("Polling mailbox {} (batch size {})...", pool.getName(), limit);
+
             // Fetch unread emails
-            List<RequestDto> requests = emailReceiverService.fetchUnreadEmails();
-            
+            EmailReceiverService.FetchResult result = emailReceiverService.fetchUnreadEmails(pool, limit);
+            List<RequestDto> requests = result.requests();
+
+            List<RequestDto> processedRequests = List.of();
             if (requests.isEmpty()) {
-                log.info("No new emails found");
-                return;
+                log.info("No new emails found in {}", pool.getName());
+            } else {
+                log.info("Found {} new emails in {}, processing...", requests.size(), pool.getName());
+
+                // Process and send to Kafka
+                processedRequests = requestService.processRequests(requests);
+
+                log.info("Successfully processed {} requests", processedRequests.size());
             }
-            
-            log.info("Found {} new emails, processing...", requests.size());
-            
-            // Process and send to Kafka
-            List<RequestDto> processedRequests = requestService.processRequests(requests);
-            
-            log.info("Successfully processed {} requests", processedRequests.size());
-            
+            // The UID mark moves only over messages whose requests are committed
+            emailReceiverService.commitSyncMark(result, processedRequests);
+            worker.completed(limit, requests.size(), result.backlog());
         } catch (Exception e) {
             log.error("Error during email polling: {}", e.getMessage(), e);
+            worker.failed();
         }
+
+        log.debug("Mailbox {}: {}", pool.getName(), worker.getStats());
     }
 }
@@ -0,0 +1,138 @@
+package com.mailserver.mailprocessor.scheduler;
+
+import com.mailserver.mailprocessor.service.MailStorePool;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.TriggerContext;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polling state of one mailbox: adaptive batch size and delay, backlog and counters.
+ * Re-polls immediately with growing batches while the mailbox has a backlog
+ * and backs off exponentially while it is idle or failing.
+ */
+public class MailboxWorker {
+
+    private final MailStorePool pool;
+    private final int batchSize;
+    private final int maxBatchSize;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong fetched = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final DistributionSummary messagesPerPoll;
+
+    private volatile int currentBatchSize;
+    private volatile long nextDelayMs;
+    private volatile int backlog;
+    private volatile boolean owned;
+
+    public MailboxWorker(MailStorePool pool, int batchSize, int maxBatchSize, long minDelayMs, long maxDelayMs,
+                         MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.currentBatchSize = batchSize;
+        this.nextDelayMs = minDelayMs;
+
+        String mailbox = pool.getName();
+        this.messagesPerPoll = DistributionSummary.builder("mail.poll.messages")
+                .description("Messages fetched per poll")
+                .tag("mailbox", mailbox)
+                .register(meterRegistry);
+        FunctionCounter.builder("mail.polls", polls, AtomicLong::get)
+                .tag("mailbox", mailbox).register(meterRegistry);
+        FunctionCounter.builder("mail.poll.errors", errors, AtomicLong::get)
+                .tag("mailbox", mailbox).register(meterRegistry);
+        Gauge.builder("mail.backlog", this, MailboxWorker::getBacklog)
+                .description("Messages still waiting in the mailbox after the last poll")
+                .tag("mailbox", mailbox).register(meterRegistry);
+        Gauge.builder("mail.poll.batch.size", this, MailboxWorker::getBatchSize)
+                .tag("mailbox", mailbox).register(meterRegistry);
+    }
+
+    public MailStorePool getPool() {
+        return pool;
+    }
+
+    public int getBatchSize() {
+        return currentBatchSize;
+    }
+
+    /**
+     * Messages still waiting in the mailbox after the last poll
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * Whether this node owned the mailbox at the last poll
+     */
+    public boolean isOwned() {
+        return owned;
+    }
+
+    public WorkerStats getStats() {
+        return new WorkerStats(polls.get(), fetched.get(), errors.get(), backlog, currentBatchSize, nextDelayMs);
+    }
+
+    Instant nextExecution(TriggerContext triggerContext) {
+        Instant lastCompletion = triggerContext.lastCompletion();
+        return lastCompletion == null ? Instant.now() : lastCompletion.plusMillis(nextDelayMs);
+    }
+
+    /**
+     * Mailbox is owned by another node or served by IDLE: check again after the longest delay
+     */
+    void standBy(boolean owned) {
+        this.owned = owned;
+        backlog = 0;
+        currentBatchSize = batchSize;
+        nextDelayMs = maxDelayMs;
+    }
+
+    void completed(int limit, int fetchedCount, int found) {
+        owned = true;
+        polls.incrementAndGet();
+        fetched.addAndGet(fetchedCount);
+        messagesPerPoll.record(fetchedCount);
+        backlog = Math.max(found - fetchedCount, 0);
+
+        if (found > limit && fetchedCount > 0) {
+            // Batch cap was hit: drain right away with a bigger batch
+            currentBatchSize = Math.min(limit * 2, maxBatchSize);
+            nextDelayMs = 0;
+        } else if (found == 0) {
+            backOff();
+        } else {
+            currentBatchSize = batchSize;
+            nextDelayMs = minDelayMs;
+        }
+    }
+
+    void failed() {
+        polls.incrementAndGet();
+        errors.incrementAndGet();
+        backOff();
+    }
+
+    private void backOff() {
+        currentBatchSize = batchSize;
+        nextDelayMs = Math.min(Math.max(nextDelayMs * 2, minDelayMs), maxDelayMs);
+    }
+
+    /**
+     * Snapshot of worker counters
+     */
+    public record WorkerStats(long polls, long fetched, long errors, int backlog, int batchSize, long nextDelayMs) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.mailserver.mailprocessor.scheduler;
+
+import com.mailserver.mailprocessor.service.KafkaProducerService;
+import com.mailserver.mailprocessor.service.KafkaProducerService.BatchResult;
+import com.mailserver.mailprocessor.service.OutboxService;
+import com.mailserver.mailprocessor.service.OutboxService.PendingEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes outbox events to Kafka in batches, outside of any database transaction.
+ * Replicas claim disjoint batches, see {@link OutboxService#claimDue}.
+ * Delivery is at-least-once: consumers must tolerate a request being sent twice.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayScheduler {
+
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.send-timeout-ms:60000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.outbox.warn-after-attempts:5}")
+    private int warnAfterAttempts;
+
+    @Value("${app.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private final OutboxService outboxService;
+    private final KafkaProducerService kafkaProducerService;
+
+    public OutboxRelayScheduler(OutboxService outboxService, KafkaProducerService kafkaProducerService) {
+        this.outboxService = outboxService;
+        this.kafkaProducerService = kafkaProducerService;
+    }
+
+    /**
+     * Drain due outbox events; full batches are followed by the next one right away
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = relayBatch();
+            } while (published == batchSize);
+        } catch (Exception e) {
+            log.error("Error during outbox relay: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete acknowledged events past the retention period
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        try {
+            int deleted = outboxService.purgeSentBefore(LocalDateTime.now().minusHours(retentionHours));
+            if (deleted > 0) {
+                log.info("Purged {} sent outbox events", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Error during outbox purge: {}", e.getMessage(), e);
+        }
+    }
+
+    private int relayBatch() {
+        List<PendingEvent> batch = outboxService.claimDue(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<PendingEvent>> byTopic = batch.stream()
+                .collect(Collectors.groupingBy(PendingEvent::topic, LinkedHashMap::new, Collectors.toList()));
+        Map<String, CompletableFuture<BatchResult>> results = new LinkedHashMap<>();
+        byTopic.forEach((topic, events) -> results.put(topic, kafkaProducerService.sendBatch(topic,
+                events.stream().map(PendingEvent::request).toList())));
+
+        List<Long> sent = new ArrayList<>();
+        Map<Long, String> failed = new HashMap<>();
+        byTopic.forEach((topic, events) -> {
+            List<Throwable> errors = awaitErrors(results.get(topic), events.size());
+            for (int i = 0; i < events.size(); i++) {
+                PendingEvent event = events.get(i);
+                Throwable error = errors.get(i);
+                if (error == null) {
+                    sent.add(event.id());
+                    continue;
+                }
+
+                String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+                failed.put(event.id(), message);
+                if (event.attempts() + 1 >= warnAfterAttempts) {
+                    log.warn("Request {} still not published after {} attempts: {}",
+                            event.request().getId(), event.attempts() + 1, message);
+                }
+            }
+        });
+
+        outboxService.markSent(sent);
+        outboxService.markFailed(failed);
+
+        log.debug("Outbox batch: {} sent, {} failed", sent.size(), failed.size());
+        return failed.isEmpty() ? batch.size() : 0;
+    }
+
+    /**
+     * Per-request errors of a batch send; the whole batch counts as failed past the deadline
+     */
+    private List<Throwable> awaitErrors(CompletableFuture<BatchResult> result, int size) {
+        Throwable error;
+        try {
+            return result.get(sendTimeoutMs, TimeUnit.MILLISECONDS).errors();
+        } catch (TimeoutException e) {
+            error = new TimeoutException("Batch send timed out");
+        } catch (ExecutionException e) {
+            error = e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        }
+        return Collections.nCopies(size, error);
+    }
+}
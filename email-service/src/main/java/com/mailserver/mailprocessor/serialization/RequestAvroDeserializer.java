@@ -0,0 +1,74 @@
+package com.mailserver.mailprocessor.serialization;
+
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads RequestDto written by {@link RequestAvroSerializer}.
+ * Payloads without the Avro header are read as JSON, so a topic can switch formats
+ * while older messages are still being consumed.
+ */
+public class RequestAvroDeserializer implements Deserializer<RequestDto> {
+
+    /**
+     * Single-object encoding marker
+     */
+    private static final byte MAGIC_0 = (byte) 0xC3;
+    private static final byte MAGIC_1 = (byte) 0x01;
+
+    /**
+     * Previous schema versions are registered here with addSchema so old messages still decode
+     */
+    private final BinaryMessageDecoder<GenericRecord> decoder =
+            new BinaryMessageDecoder<>(GenericData.get(), RequestAvroMapper.SCHEMA);
+
+    private final JsonDeserializer<RequestDto> jsonDeserializer = new JsonDeserializer<>();
+
+    public RequestAvroDeserializer() {
+        RequestAvroMapper.PREVIOUS_SCHEMAS.forEach(decoder::addSchema);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Map<String, Object> jsonConfigs = new HashMap<>(configs);
+        jsonConfigs.putIfAbsent(JsonDeserializer.VALUE_DEFAULT_TYPE, RequestDto.class);
+        jsonConfigs.putIfAbsent(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        jsonDeserializer.configure(jsonConfigs, isKey);
+    }
+
+    @Override
+    public RequestDto deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public RequestDto deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < 2 || data[0] != MAGIC_0 || data[1] != MAGIC_1) {
+            return headers != null ? jsonDeserializer.deserialize(topic, headers, data)
+                    : jsonDeserializer.deserialize(topic, data);
+        }
+        try {
+            return RequestAvroMapper.fromRecord(decoder.decode(data));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to deserialize request from topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
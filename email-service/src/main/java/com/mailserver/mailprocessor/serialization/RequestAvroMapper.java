@@ -0,0 +1,157 @@
+package com.mailserver.mailprocessor.serialization;
+
+import com.mailserver.mailprocessor.model.dto.AttachmentDto;
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.mailserver.mailprocessor.model.enums.RequestCategory;
+import com.mailserver.mailprocessor.model.enums.RequestStatus;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Converts RequestDto to and from the RequestEvent Avro record (avro/request-event.avsc)
+ */
+public final class RequestAvroMapper {
+
+    public static final Schema SCHEMA = loadSchema("/avro/request-event.avsc");
+
+    /**
+     * Earlier versions of the schema, still readable: v1 has no messageKey
+     */
+    public static final List<Schema> PREVIOUS_SCHEMAS = List.of(loadSchema("/avro/request-event-v1.avsc"));
+
+    private static final Schema ATTACHMENT_SCHEMA = SCHEMA.getField("attachments").schema().getElementType();
+
+    private RequestAvroMapper() {
+    }
+
+    public static GenericRecord toRecord(RequestDto dto) {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("id", dto.getId().toString());
+        record.put("email", dto.getEmail());
+        record.put("organization", dto.getOrganization());
+        record.put("fio", dto.getFio());
+        record.put("phone", dto.getPhone());
+        record.put("deviceType", dto.getDeviceType());
+        record.put("serialNumber", dto.getSerialNumber());
+        record.put("category", dto.getCategory() != null ? dto.getCategory().name() : null);
+        record.put("project", dto.getProject());
+        record.put("inn", dto.getInn());
+        record.put("countryRegion", dto.getCountryRegion());
+        record.put("attachments", toAttachmentRecords(dto.getAttachments()));
+        record.put("confidenceScore", dto.getConfidenceScore());
+        record.put("status", dto.getStatus() != null ? dto.getStatus().name() : null);
+        record.put("aiGeneratedAnswer", dto.getAiGeneratedAnswer());
+        record.put("operatorAnswer", dto.getOperatorAnswer());
+        record.put("createdAt", toMillis(dto.getCreatedAt()));
+        record.put("updatedAt", toMillis(dto.getUpdatedAt()));
+        record.put("isForm", Boolean.TRUE.equals(dto.getIsForm()));
+        record.put("emailSubject", dto.getEmailSubject());
+        record.put("emailBody", dto.getEmailBody());
+        record.put("messageKey", dto.getMessageKey());
+        return record;
+    }
+
+    public static RequestDto fromRecord(GenericRecord record) {
+        String category = string(record, "category");
+        String status = string(record, "status");
+
+        return RequestDto.builder()
+                .id(UUID.fromString(string(record, "id")))
+                .email(string(record, "email"))
+                .organization(string(record, "organization"))
+                .fio(string(record, "fio"))
+                .phone(string(record, "phone"))
+                .deviceType(string(record, "deviceType"))
+                .serialNumber(string(record, "serialNumber"))
+                .category(category != null ? RequestCategory.valueOf(category) : null)
+                .project(string(record, "project"))
+                .inn(string(record, "inn"))
+                .countryRegion(string(record, "countryRegion"))
+                .attachments(fromAttachmentRecords(record.get("attachments")))
+                .confidenceScore((Float) record.get("confidenceScore"))
+                .status(status != null ? RequestStatus.valueOf(status) : null)
+                .aiGeneratedAnswer(string(record, "aiGeneratedAnswer"))
+                .operatorAnswer(string(record, "operatorAnswer"))
+                .createdAt(fromMillis(record.get("createdAt")))
+                .updatedAt(fromMillis(record.get("updatedAt")))
+                .isForm((Boolean) record.get("isForm"))
+                .emailSubject(string(record, "emailSubject"))
+                .emailBody(string(record, "emailBody"))
+                .messageKey(string(record, "messageKey"))
+                .build();
+    }
+
+    private static List<GenericRecord> toAttachmentRecords(List<AttachmentDto> attachments) {
+        List<GenericRecord> records = new ArrayList<>();
+        if (attachments == null) {
+            return records;
+        }
+        for (AttachmentDto attachment : attachments) {
+            GenericRecord record = new GenericData.Record(ATTACHMENT_SCHEMA);
+            record.put("fileName", attachment.getFileName());
+            record.put("contentType", attachment.getContentType());
+            record.put("disposition", attachment.getDisposition());
+            record.put("size", attachment.getSize());
+            record.put("sha256", attachment.getSha256());
+            record.put("ref", attachment.getRef());
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static List<AttachmentDto> fromAttachmentRecords(Object value) {
+        List<AttachmentDto> attachments = new ArrayList<>();
+        if (value instanceof List<?> records) {
+            for (Object item : records) {
+                GenericRecord record = (GenericRecord) item;
+                attachments.add(AttachmentDto.builder()
+                        .fileName(string(record, "fileName"))
+                        .contentType(string(record, "contentType"))
+                        .disposition(string(record, "disposition"))
+                        .size((Long) record.get("size"))
+                        .sha256(string(record, "sha256"))
+                        .ref(string(record, "ref"))
+                        .build());
+            }
+        }
+        return attachments;
+    }
+
+    /**
+     * Generic records hold strings as Utf8
+     */
+    private static String string(GenericRecord record, String field) {
+        Object value = record.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    private static Long toMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+    }
+
+    private static LocalDateTime fromMillis(Object millis) {
+        return millis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli((Long) millis), ZoneOffset.UTC) : null;
+    }
+
+    private static Schema loadSchema(String resource) {
+        try (InputStream in = RequestAvroMapper.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Avro schema not found: " + resource);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
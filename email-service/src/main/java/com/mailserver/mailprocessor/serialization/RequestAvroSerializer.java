@@ -0,0 +1,35 @@
+package com.mailserver.mailprocessor.serialization;
+
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Avro single-object encoding of RequestDto: a 10-byte header with the schema
+ * fingerprint followed by the binary record, so readers can resolve the writer schema.
+ */
+public class RequestAvroSerializer implements Serializer<RequestDto> {
+
+    private final BinaryMessageEncoder<GenericRecord> encoder =
+            new BinaryMessageEncoder<>(GenericData.get(), RequestAvroMapper.SCHEMA);
+
+    @Override
+    public byte[] serialize(String topic, RequestDto data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+            encoder.encode(RequestAvroMapper.toRecord(data), out);
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to serialize request " + data.getId(), e);
+        }
+    }
+}
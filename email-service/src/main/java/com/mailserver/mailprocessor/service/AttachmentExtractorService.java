@@ -0,0 +1,184 @@
+package com.mailserver.mailprocessor.service;
+
+import com.mailserver.mailprocessor.model.dto.AttachmentDto;
+import com.mailserver.mailprocessor.model.dto.StoredAttachment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.internet.ContentType;
+import jakarta.mail.internet.MimePart;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies attachment limits and streams allowed parts into the attachment store.
+ * Parts of one IMAP message are fetched over its folder connection one request at a time;
+ * the executor only overlaps hashing and disk writes with those fetches.
+ */
+@Service
+@Slf4j
+public class AttachmentExtractorService {
+
+    @Value("${app.attachments.max-part-bytes:26214400}")
+    private long maxPartBytes;
+
+    @Value("${app.attachments.max-message-bytes:52428800}")
+    private long maxMessageBytes;
+
+    @Value("${app.attachments.allowed-types}")
+    private List<String> allowedTypes;
+
+    private final AttachmentStorageService attachmentStorageService;
+    private final Executor attachmentExecutor;
+
+    private final Counter storedBytes;
+    private final Counter stored;
+    private final Counter skippedType;
+    private final Counter skippedSize;
+
+    public AttachmentExtractorService(AttachmentStorageService attachmentStorageService,
+                                      @Qualifier("attachmentExecutor") Executor attachmentExecutor,
+                                      MeterRegistry meterRegistry) {
+        this.attachmentStorageService = attachmentStorageService;
+        this.attachmentExecutor = attachmentExecutor;
+        this.storedBytes = Counter.builder("mail.attachments.bytes")
+                .description("Decoded bytes of stored attachments")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.stored = meterRegistry.counter("mail.attachments.stored");
+        this.skippedType = meterRegistry.counter("mail.attachments.skipped", "reason", "type");
+        this.skippedSize = meterRegistry.counter("mail.attachments.skipped", "reason", "size");
+    }
+
+    /**
+     * Check whether a leaf part is an attachment rather than body text
+     */
+    public boolean isAttachment(Part part) throws MessagingException {
+        String disposition = part.getDisposition();
+        if (Part.ATTACHMENT.equalsIgnoreCase(disposition)) {
+            return true;
+        }
+        if (Part.INLINE.equalsIgnoreCase(disposition) && part.getFileName() != null) {
+            return true;
+        }
+        return !part.isMimeType("text/*") && !part.isMimeType("multipart/*");
+    }
+
+    /**
+     * Store every allowed attachment; parts over the limits are skipped with a warning.
+     * The message limit is charged with the bytes actually read, so parts of unknown size count too.
+     * Results keep the order of {@code parts}.
+     */
+    public List<AttachmentDto> extract(List<Part> parts) {
+        List<CompletableFuture<AttachmentDto>> futures = new ArrayList<>();
+        AtomicLong budget = new AtomicLong(maxMessageBytes);
+        long remaining = maxMessageBytes;
+
+        for (Part part : parts) {
+            try {
+                String contentType = baseType(part.getContentType());
+                if (!isAllowed(contentType)) {
+                    log.warn("Skipping attachment {} with disallowed type {}", part.getFileName(), contentType);
+                    skippedType.increment();
+                    continue;
+                }
+
+                // Size from BODYSTRUCTURE is the encoded size, so estimate the decoded one.
+                // It only skips parts that cannot fit; the budget enforces the limit while reading
+                long declared = estimateDecodedSize(part);
+                if (declared > maxPartBytes || declared > remaining) {
+                    log.warn("Skipping attachment {} of ~{} bytes: size limit exceeded", part.getFileName(), declared);
+                    skippedSize.increment();
+                    continue;
+                }
+                remaining -= Math.max(declared, 0);
+
+                futures.add(CompletableFuture.supplyAsync(() -> store(part, contentType, budget), attachmentExecutor));
+            } catch (MessagingException e) {
+                log.warn("Skipping unreadable attachment: {}", e.getMessage());
+            }
+        }
+
+        List<AttachmentDto> attachments = new ArrayList<>();
+        for (CompletableFuture<AttachmentDto> future : futures) {
+            try {
+                attachments.add(future.join());
+            } catch (CompletionException e) {
+                log.warn("Failed to store attachment: {}", e.getCause().getMessage());
+            }
+        }
+        return attachments;
+    }
+
+    private AttachmentDto store(Part part, String contentType, AtomicLong budget) {
+        try {
+            StoredAttachment storedAttachment = attachmentStorageService.store(part.getInputStream(),
+                    maxPartBytes, budget);
+            stored.increment();
+            storedBytes.increment(storedAttachment.getSize());
+            return AttachmentDto.builder()
+                    .fileName(part.getFileName())
+                    .contentType(contentType)
+                    .disposition(part.getDisposition() != null
+                            ? part.getDisposition().toLowerCase(Locale.ROOT) : Part.INLINE)
+                    .size(storedAttachment.getSize())
+                    .sha256(storedAttachment.getSha256())
+                    .ref(storedAttachment.getRef())
+                    .build();
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private boolean isAllowed(String contentType) {
+        return isAllowedType(contentType, allowedTypes);
+    }
+
+    /**
+     * Match a lower-case base content type against allow-list patterns: exact types, any type,
+     * and prefixes ending in "*" such as "image/*" or "application/vnd.openxmlformats-officedocument.*"
+     */
+    public static boolean isAllowedType(String contentType, List<String> patterns) {
+        for (String allowed : patterns) {
+            String pattern = allowed.trim().toLowerCase(Locale.ROOT);
+            if (pattern.equals("*/*") || pattern.equals(contentType)) {
+                return true;
+            }
+            if (pattern.endsWith("*") && contentType.startsWith(pattern.substring(0, pattern.length() - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long estimateDecodedSize(Part part) throws MessagingException {
+        long size = part.getSize();
+        if (size > 0 && part instanceof MimePart mimePart
+                && "base64".equalsIgnoreCase(mimePart.getEncoding())) {
+            return size * 3 / 4;
+        }
+        return size;
+    }
+
+    private static String baseType(String contentType) {
+        if (contentType == null) {
+            return "application/octet-stream";
+        }
+        try {
+            return new ContentType(contentType).getBaseType().toLowerCase(Locale.ROOT);
+        } catch (Exception e) {
+            return contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
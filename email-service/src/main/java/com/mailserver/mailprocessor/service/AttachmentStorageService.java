@@ -0,0 +1,131 @@
+package com.mailserver.mailprocessor.service;
+
+import com.mailserver.mailprocessor.model.dto.StoredAttachment;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed local file store for email attachments.
+ * Parts are streamed to disk while being read, so heap usage does not depend on attachment size;
+ * identical files are stored once.
+ */
+@Service
+@Slf4j
+public class AttachmentStorageService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${app.attachments.dir}")
+    private String attachmentsDir;
+
+    private Path root;
+    private Path tmp;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(attachmentsDir).toAbsolutePath();
+        tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+
+    /**
+     * Stream content into the store, computing SHA-256 on the fly
+     */
+    public StoredAttachment store(InputStream content) throws IOException {
+        return store(content, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stream content into the store, aborting once more than {@code maxBytes} have been read
+     */
+    public StoredAttachment store(InputStream content, long maxBytes) throws IOException {
+        return store(content, maxBytes, new AtomicLong(Long.MAX_VALUE));
+    }
+
+    /**
+     * Stream content into the store, charging every byte read to {@code budget}, which may be
+     * shared by concurrent calls; aborts once more than {@code maxBytes} have been read or the
+     * budget is spent, and gives the bytes of an aborted part back to the budget
+     */
+    public StoredAttachment store(InputStream content, long maxBytes, AtomicLong budget) throws IOException {
+        Path tempFile = Files.createTempFile(tmp, "part-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            long charged = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+
+            try (InputStream in = content;
+                 OutputStream out = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new IOException("Attachment exceeds limit of " + maxBytes + " bytes");
+                    }
+                    charged += read;
+                    if (budget.addAndGet(-read) < 0) {
+                        throw new IOException("Attachments exceed the message limit");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                budget.addAndGet(charged);
+                throw e;
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String ref = sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+            Path target = root.resolve(ref);
+
+            if (Files.exists(target)) {
+                log.debug("Attachment {} already stored", sha256);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            return StoredAttachment.builder()
+                    .ref(ref)
+                    .sha256(sha256)
+                    .size(size)
+                    .build();
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Open stored attachment for reading
+     */
+    public InputStream open(String ref) throws IOException {
+        Path path = root.resolve(ref).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid attachment reference: " + ref);
+        }
+        return Files.newInputStream(path);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
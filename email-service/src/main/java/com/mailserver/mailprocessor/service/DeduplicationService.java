@@ -0,0 +1,148 @@
+package com.mailserver.mailprocessor.service;
+
+import com.mailserver.mailprocessor.dedup.BloomFilter;
+import com.mailserver.mailprocessor.repository.RequestRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detects already ingested emails by message key.
+ * Recently saved keys are answered from a bounded cache and unknown keys from a Bloom filter,
+ * so only Bloom filter hits (duplicates and rare false positives) query the unique index in Postgres.
+ */
+@Service
+@Slf4j
+public class DeduplicationService implements MeterBinder {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    @Value("${app.dedup.expected-messages:1000000}")
+    private long expectedMessages;
+
+    @Value("${app.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.dedup.recent-cache-size:10000}")
+    private int recentCacheSize;
+
+    private final RequestRepository requestRepository;
+
+    private BloomFilter bloomFilter;
+    private Map<String, Boolean> recent;
+    private boolean loaded;
+
+    private long bloomMisses;
+    private long databaseChecks;
+
+    public DeduplicationService(RequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+    }
+
+    /**
+     * Check whether an email with this key was already saved
+     */
+    public synchronized boolean isDuplicate(String messageKey) {
+        ensureLoaded();
+        if (recent.containsKey(messageKey)) {
+            return true;
+        }
+        if (loaded && !bloomFilter.mightContain(messageKey)) {
+            bloomMisses++;
+            return false;
+        }
+
+        databaseChecks++;
+        boolean exists = requestRepository.existsByMessageKey(messageKey);
+        if (exists) {
+            remember(messageKey);
+        }
+        return exists;
+    }
+
+    /**
+     * Record keys of saved requests; call only after the transaction committed
+     */
+    public synchronized void remember(Collection<String> messageKeys) {
+        ensureLoaded();
+        messageKeys.forEach(this::remember);
+    }
+
+    public synchronized DedupStats getStats() {
+        return new DedupStats(bloomMisses, databaseChecks);
+    }
+
+    /**
+     * Lookups answered by the Bloom filter alone, and lookups that queried the database
+     */
+    public record DedupStats(long bloomMisses, long databaseChecks) {
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mail.dedup.bloom.misses", this, s -> s.getStats().bloomMisses())
+                .description("Lookups answered by the Bloom filter alone")
+                .register(registry);
+        FunctionCounter.builder("mail.dedup.database.checks", this, s -> s.getStats().databaseChecks())
+                .description("Lookups that queried the unique index")
+                .register(registry);
+    }
+
+    private void remember(String messageKey) {
+        if (messageKey != null) {
+            bloomFilter.put(messageKey);
+            recent.put(messageKey, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Load existing keys on first use; until it succeeds every lookup goes to the database
+     */
+    private void ensureLoaded() {
+        if (bloomFilter == null) {
+            bloomFilter = new BloomFilter(expectedMessages, falsePositiveRate);
+            recent = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > recentCacheSize;
+                }
+            };
+        }
+        if (loaded) {
+            return;
+        }
+
+        try {
+            long count = 0;
+            String after = "";
+            List<String> page;
+            do {
+                page = requestRepository.findMessageKeysAfter(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+                page.forEach(bloomFilter::put);
+                count += page.size();
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+
+            loaded = true;
+            log.info("Loaded {} message keys into deduplication filter ({} bits, {} hashes)",
+                    count, bloomFilter.bitSize(), bloomFilter.hashCount());
+            if (count > expectedMessages) {
+                log.warn("Deduplication filter holds {} keys but is sized for {}, raise app.dedup.expected-messages",
+                        count, expectedMessages);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to load message keys, checking duplicates in the database: {}", e.getMessage());
+        }
+    }
+}
@@ -2,10 +2,20 @@ package com.mailserver.mailprocessor.service;
 
 import com.mailserver.mailprocessor.model.dto.RequestDto;
 import com.mailserver.mailprocessor.model.enums.RequestCategory;
+import com.mailserver.mailprocessor.parser.CategoryClassifier;
+import com.mailserver.mailprocessor.parser.FieldExtractor;
+import com.mailserver.mailprocessor.parser.HtmlText;
+import com.mailserver.mailprocessor.parser.QuoteTrimmer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -18,11 +28,49 @@ public class EmailParserService {
     private static final Pattern PHONE_PATTERN = Pattern.compile("\\+?[0-9]{1,4}?[-.\\s]?\\(?[0-9]{1,3}?\\)?[-.\\s]?[0-9]{1,4}[-.\\s]?[0-9]{1,4}[-.\\s]?[0-9]{1,9}");
     private static final Pattern INN_PATTERN = Pattern.compile("\\b\\d{10,12}\\b");
     private static final Pattern SERIAL_NUMBER_PATTERN = Pattern.compile("\\b[A-Z0-9]{5,20}\\b");
+    private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<(html|body|div|p|br|table|span|font)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final FieldExtractor fieldExtractor;
+    private final CategoryClassifier categoryClassifier;
+    private final Timer parseTimer;
+    private final DistributionSummary textSize;
+
+    public EmailParserService(@Value("${app.parser.field-keywords}") Resource fieldKeywords,
+                              @Value("${app.parser.category-rules}") Resource categoryRules,
+                              MeterRegistry meterRegistry) throws IOException {
+        try (InputStream in = fieldKeywords.getInputStream()) {
+            this.fieldExtractor = FieldExtractor.load(in);
+        }
+        try (InputStream in = categoryRules.getInputStream()) {
+            this.categoryClassifier = CategoryClassifier.load(in);
+        }
+        this.parseTimer = Timer.builder("mail.parse")
+                .description("Parsing of an email body into a request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.textSize = DistributionSummary.builder("mail.parse.text")
+                .description("Characters of extracted body text that are parsed")
+                .baseUnit("chars")
+                .register(meterRegistry);
+    }
 
     /**
-     * Parse email content to RequestDto
+     * Parse email content to RequestDto; HTML bodies are recognized by their markup
      */
     public RequestDto parseEmailToRequest(String subject, String bodyText, String from) {
+        return parseEmailToRequest(subject, bodyText, from, looksLikeHtml(bodyText));
+    }
+
+    /**
+     * Parse email content to RequestDto
+     *
+     * @param html whether the body came from a text/html part
+     */
+    public RequestDto parseEmailToRequest(String subject, String bodyText, String from, boolean html) {
+        return parseTimer.record(() -> parse(subject, bodyText, from, html));
+    }
+
+    private RequestDto parse(String subject, String bodyText, String from, boolean html) {
         log.debug("Parsing email from: {}, subject: {}", from, subject);
         
         RequestDto request = RequestDto.builder()
@@ -32,11 +80,21 @@ public class EmailParserService {
                 .isForm(false)  // Email-originated requests are not from form
                 .build();
 
+        // Only the text written in this message is parsed, without markup and quotes.
+        // Contacts usually sit in the signature, so fields are looked up there too
+        String text = extractText(bodyText, html);
+        String cleanBody = QuoteTrimmer.trim(text);
+        textSize.record(cleanBody.length());
+
         // Parse fields from email body
-        parseEmailBody(request, bodyText);
+        parseEmailBody(request, text);
         
-        // Try to determine category from subject
-        request.setCategory(determineCategory(subject, bodyText));
+        // Determine category from subject and body keywords
+        CategoryClassifier.Classification classification = categoryClassifier.classify(subject, cleanBody);
+        request.setCategory(classification.category());
+        if (classification.category() != RequestCategory.OTHER) {
+            request.setConfidenceScore(classification.score());
+        }
         
         log.info("Parsed request from email: {}", request.getEmail());
         return request;
@@ -45,78 +103,21 @@ public class EmailParserService {
     /**
      * Parse email body and extract structured data
      */
-    private void parseEmailBody(RequestDto request, String body) {
-        String cleanBody = cleanHtmlContent(body);
-        
+    private void parseEmailBody(RequestDto request, String text) {
         // Extract phone
-        Matcher phoneMatcher = PHONE_PATTERN.matcher(cleanBody);
+        Matcher phoneMatcher = PHONE_PATTERN.matcher(text);
         if (phoneMatcher.find()) {
             request.setPhone(phoneMatcher.group());
         }
         
         // Extract INN
-        Matcher innMatcher = INN_PATTERN.matcher(cleanBody);
+        Matcher innMatcher = INN_PATTERN.matcher(text);
         if (innMatcher.find()) {
             request.setInn(innMatcher.group());
         }
         
-        // Look for specific keywords and extract data
-        extractFieldByKeyword(cleanBody, "организация", "organization", request);
-        extractFieldByKeyword(cleanBody, "фио", "fio", request);
-        extractFieldByKeyword(cleanBody, "имя", "fio", request);
-        extractFieldByKeyword(cleanBody, "тип прибора", "deviceType", request);
-        extractFieldByKeyword(cleanBody, "серийный номер", "serialNumber", request);
-        extractFieldByKeyword(cleanBody, "заводской номер", "serialNumber", request);
-        extractFieldByKeyword(cleanBody, "проект", "project", request);
-        extractFieldByKeyword(cleanBody, "страна", "countryRegion", request);
-        extractFieldByKeyword(cleanBody, "регион", "countryRegion", request);
-    }
-
-    /**
-     * Extract field by keyword from text
-     */
-    private void extractFieldByKeyword(String text, String keyword, String fieldName, RequestDto request) {
-        try {
-            String lowerText = text.toLowerCase();
-            int index = lowerText.indexOf(keyword.toLowerCase());
-            
-            if (index != -1) {
-                // Look for value after keyword (find next line or after colon)
-                String afterKeyword = text.substring(index + keyword.length());
-                String value = extractValueAfterKeyword(afterKeyword);
-                
-                if (value != null && !value.isEmpty()) {
-                    setRequestField(request, fieldName, value);
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Error extracting field {}: {}", fieldName, e.getMessage());
-        }
-    }
-
-    /**
-     * Extract value after keyword (after : or on new line)
-     */
-    private String extractValueAfterKeyword(String text) {
-        text = text.trim();
-        
-        // Skip colon or equals sign
-        if (text.startsWith(":") || text.startsWith("=")) {
-            text = text.substring(1).trim();
-        }
-        
-        // Get first line or until next field marker
-        int endIndex = text.indexOf('\n');
-        if (endIndex == -1) {
-            endIndex = Math.min(text.length(), 100); // Max 100 chars
-        }
-        
-        String value = text.substring(0, endIndex).trim();
-        
-        // Clean up common artifacts
-        value = value.replaceAll("[<>\\[\\]{}]", "").trim();
-        
-        return value.length() > 1 ? value : null;
+        // Look for specific keywords and extract data in one pass
+        fieldExtractor.extract(text).forEach((fieldName, value) -> setRequestField(request, fieldName, value));
     }
 
     /**
@@ -135,41 +136,6 @@ public class EmailParserService {
         }
     }
 
-    /**
-     * Determine category from subject and body keywords
-     */
-    private RequestCategory determineCategory(String subject, String body) {
-        String combined = (subject + " " + body).toLowerCase();
-        
-        if (containsAny(combined, "гарантия", "warranty")) {
-            return RequestCategory.WARRANTY;
-        } else if (containsAny(combined, "ремонт", "repair", "неисправн")) {
-            return RequestCategory.REPAIR;
-        } else if (containsAny(combined, "установка", "монтаж", "installation")) {
-            return RequestCategory.INSTALLATION;
-        } else if (containsAny(combined, "настройка", "конфигурация", "configuration")) {
-            return RequestCategory.CONFIGURATION;
-        } else if (containsAny(combined, "консультация", "вопрос", "помощь", "consultation")) {
-            return RequestCategory.CONSULTATION;
-        } else if (containsAny(combined, "техподдержка", "тех поддержка", "support")) {
-            return RequestCategory.TECHNICAL_SUPPORT;
-        }
-        
-        return RequestCategory.OTHER;
-    }
-
-    /**
-     * Check if text contains any of the keywords
-     */
-    private boolean containsAny(String text, String... keywords) {
-        for (String keyword : keywords) {
-            if (text.contains(keyword.toLowerCase())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Extract email from string
      */
@@ -190,18 +156,17 @@ public class EmailParserService {
     }
 
     /**
-     * Clean HTML content and extract plain text
+     * Text of the new message: HTML is converted to text lines, then quoted replies are cut off.
+     * The signature is kept after a {@code "-- "} line
      */
-    private String cleanHtmlContent(String html) {
-        if (html == null) {
+    String extractText(String body, boolean html) {
+        if (body == null) {
             return "";
         }
-        
-        try {
-            return Jsoup.parse(html).text();
-        } catch (Exception e) {
-            log.warn("Error cleaning HTML: {}", e.getMessage());
-            return html;
-        }
+        return QuoteTrimmer.trim(html ? HtmlText.toText(body, true) : body, true);
+    }
+
+    static boolean looksLikeHtml(String body) {
+        return body != null && body.indexOf('<') >= 0 && HTML_TAG_PATTERN.matcher(body).find();
     }
 }
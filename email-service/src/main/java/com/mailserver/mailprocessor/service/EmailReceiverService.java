@@ -1,219 +1,544 @@
 package com.mailserver.mailprocessor.service;
 
+import com.mailserver.mailprocessor.dedup.MessageKeys;
 import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.mailserver.mailprocessor.model.dto.AttachmentDto;
+import com.mailserver.mailprocessor.model.entity.MailboxSyncState;
+import com.mailserver.mailprocessor.repository.MailboxSyncStateRepository;
+import com.sun.mail.imap.IMAPFolder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.*;
+import jakarta.mail.internet.ContentType;
 import jakarta.mail.internet.MimeMultipart;
 import jakarta.mail.search.FlagTerm;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class EmailReceiverService {
 
-    @Value("${spring.mail.host}")
-    private String mailHost;
-
-    @Value("${spring.mail.port}")
-    private int mailPort;
-
-    @Value("${spring.mail.username}")
-    private String mailUsername;
-
-    @Value("${spring.mail.password}")
-    private String mailPassword;
-
-    @Value("${app.mail.folder}")
-    private String mailFolder;
+    private static final String SYNC_MODE_UID = "uid";
 
     @Value("${app.mail.batch-size}")
     private int batchSize;
 
+    @Value("${app.mail.sync-mode:unseen}")
+    private String syncMode;
+
     private final EmailParserService emailParserService;
+    private final MailboxSyncStateRepository mailboxSyncStateRepository;
+    private final Executor mailParseExecutor;
+    private final AttachmentExtractorService attachmentExtractorService;
+    private final DeduplicationService deduplicationService;
+    private final MeterRegistry meterRegistry;
 
-    public EmailReceiverService(EmailParserService emailParserService) {
+    /**
+     * Batch FETCH of envelopes and structure, and download of a single message body with attachments
+     */
+    private final Timer envelopeFetchTimer;
+    private final Timer bodyFetchTimer;
+
+    public EmailReceiverService(EmailParserService emailParserService,
+                                MailboxSyncStateRepository mailboxSyncStateRepository,
+                                @Qualifier("mailParseExecutor") Executor mailParseExecutor,
+                                AttachmentExtractorService attachmentExtractorService,
+                                DeduplicationService deduplicationService,
+                                MeterRegistry meterRegistry) {
         this.emailParserService = emailParserService;
+        this.mailboxSyncStateRepository = mailboxSyncStateRepository;
+        this.mailParseExecutor = mailParseExecutor;
+        this.attachmentExtractorService = attachmentExtractorService;
+        this.deduplicationService = deduplicationService;
+        this.meterRegistry = meterRegistry;
+        this.envelopeFetchTimer = Timer.builder("mail.imap.fetch")
+                .tag("stage", "envelope")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.bodyFetchTimer = Timer.builder("mail.imap.fetch")
+                .tag("stage", "body")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Requests fetched from a mailbox and the number of pending messages seen,
+     * including those left for the next fetch. In uid sync mode {@code syncMark} holds the
+     * messages the UID high-water mark may move over once their requests are saved;
+     * pass it to {@link #commitSyncMark} after persisting.
+     */
+    public record FetchResult(List<RequestDto> requests, int backlog, SyncMark syncMark) {
+
+        static FetchResult empty() {
+            return new FetchResult(List.of(), 0, null);
+        }
+    }
+
+    /**
+     * UIDs and message keys, in UID order, of the leading messages of a batch that were parsed
+     * or skipped as duplicates. The first message that failed and everything after it is left out.
+     */
+    public record SyncMark(String mailbox, long uidValidity, long[] uids, String[] messageKeys) {
     }
 
     /**
      * Fetch unread emails from mailbox
      */
-    public List<RequestDto> fetchUnreadEmails() {
-        List<RequestDto> requests = new ArrayList<>();
-        Store store = null;
-        Folder inbox = null;
+    public FetchResult fetchUnreadEmails(MailStorePool pool) {
+        return fetchUnreadEmails(pool, batchSize);
+    }
+
+    /**
+     * Fetch at most {@code limit} unread emails from mailbox
+     */
+    public FetchResult fetchUnreadEmails(MailStorePool pool, int limit) {
+        MailStorePool.PooledFolder pooled = null;
 
         try {
-            log.info("Connecting to mail server: {}", mailHost);
-            
-            // Create session
-            Properties properties = new Properties();
-            properties.put("mail.store.protocol", "imaps");
-            properties.put("mail.imaps.host", mailHost);
-            properties.put("mail.imaps.port", mailPort);
-            properties.put("mail.imaps.ssl.enable", "true");
-            properties.put("mail.imaps.ssl.trust", "*");
-            properties.put("mail.imaps.timeout", "10000");
-            properties.put("mail.imaps.connectiontimeout", "10000");
-
-            Session session = Session.getInstance(properties);
-            store = session.getStore("imaps");
-            store.connect(mailHost, mailUsername, mailPassword);
-
-            // Open inbox
-            inbox = store.getFolder(mailFolder);
-            inbox.open(Folder.READ_WRITE);
-
-            // Get unread messages
-            Message[] messages = inbox.search(new FlagTerm(new Flags(Flags.Flag.SEEN), false));
-            
-            log.info("Found {} unread messages", messages.length);
+            pooled = pool.borrow();
+            FetchResult result = fetchFromFolder(pool, pooled.getFolder(), limit);
+            pool.release(pooled);
+            return result;
+        } catch (Exception e) {
+            if (pooled != null) {
+                pool.invalidate(pooled);
+            }
+            throw new IllegalStateException("Error fetching emails from " + pool.getName() + ": " + e.getMessage(), e);
+        }
+    }
 
-            // Process batch
-            int processCount = Math.min(messages.length, batchSize);
-            
-            for (int i = 0; i < processCount; i++) {
-                try {
-                    Message message = messages[i];
-                    RequestDto request = processMessage(message);
-                    if (request != null) {
-                        requests.add(request);
-                        // Mark as read
-                        message.setFlag(Flags.Flag.SEEN, true);
-                        log.info("Processed email from: {}", request.getEmail());
-                    }
-                } catch (Exception e) {
-                    log.error("Error processing message {}: {}", i, e.getMessage(), e);
-                }
+    /**
+     * Fetch at most {@code limit} new emails from an open folder of the mailbox,
+     * by UID or by the SEEN flag depending on {@code app.mail.sync-mode}
+     */
+    public FetchResult fetchFromFolder(MailStorePool pool, Folder inbox, int limit) throws MessagingException {
+        Timer searchTimer = Timer.builder("mail.imap.search")
+                .description("Lookup of new messages in a mailbox")
+                .tag("mailbox", pool.getName())
+                .register(meterRegistry);
+
+        if (SYNC_MODE_UID.equalsIgnoreCase(syncMode) && inbox instanceof UIDFolder) {
+            return fetchNewByUid(pool.getMailboxKey(), inbox, limit, searchTimer);
+        }
+
+        // Get unread messages
+        long start = System.nanoTime();
+        Message[] messages = inbox.search(new FlagTerm(new Flags(Flags.Flag.SEEN), false));
+        searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        log.info("Found {} unread messages in {}", messages.length, pool.getName());
+
+        // Process batch
+        int processCount = Math.min(messages.length, limit);
+        return new FetchResult(processMessages(Arrays.copyOf(messages, processCount)), messages.length, null);
+    }
+
+    /**
+     * Move the UID high-water mark over the leading messages of a fetch whose requests are now
+     * committed, or that were already ingested. Stops at the first message that was not saved,
+     * so it is fetched again by the next poll.
+     *
+     * @param saved requests returned by {@code RequestService.processRequests}
+     */
+    public void commitSyncMark(FetchResult result, List<RequestDto> saved) {
+        SyncMark mark = result.syncMark();
+        if (mark == null || mark.uids().length == 0) {
+            return;
+        }
+
+        Set<String> savedKeys = new HashSet<>();
+        for (RequestDto request : saved) {
+            savedKeys.add(request.getMessageKey());
+        }
+
+        long highWater = -1;
+        for (int i = 0; i < mark.uids().length; i++) {
+            String key = mark.messageKeys()[i];
+            if (!savedKeys.contains(key) && !deduplicationService.isDuplicate(key)) {
+                log.warn("Email with UID {} in {} was not saved, it will be fetched again", mark.uids()[i], mark.mailbox());
+                break;
             }
+            highWater = mark.uids()[i];
+        }
+        if (highWater < 0) {
+            return;
+        }
 
-        } catch (Exception e) {
-            log.error("Error fetching emails: {}", e.getMessage(), e);
-        } finally {
-            // Close connections
+        MailboxSyncState state = mailboxSyncStateRepository.findById(mark.mailbox()).orElse(null);
+        if (state == null || state.getUidValidity() != mark.uidValidity() || state.getLastUid() >= highWater) {
+            return;
+        }
+        state.setLastUid(highWater);
+        mailboxSyncStateRepository.save(state);
+    }
+
+    /**
+     * Incremental sync: fetch only messages with UID above the persisted high-water mark.
+     * The mark itself is moved by {@link #commitSyncMark} once the requests are saved.
+     */
+    private FetchResult fetchNewByUid(String mailbox, Folder inbox, int limit, Timer searchTimer)
+            throws MessagingException {
+        UIDFolder uidFolder = (UIDFolder) inbox;
+        long uidValidity = uidFolder.getUIDValidity();
+
+        MailboxSyncState state = mailboxSyncStateRepository.findById(mailbox).orElse(null);
+        if (state == null || state.getUidValidity() != uidValidity) {
+            if (state != null) {
+                log.warn("UIDVALIDITY of {} changed from {} to {}, resynchronizing",
+                        mailbox, state.getUidValidity(), uidValidity);
+            }
+            state = MailboxSyncState.builder()
+                    .mailbox(mailbox)
+                    .uidValidity(uidValidity)
+                    .lastUid(initialLastUid(inbox))
+                    .build();
+            mailboxSyncStateRepository.save(state);
+        }
+
+        long lastUid = state.getLastUid();
+        if (inbox instanceof IMAPFolder imapFolder && imapFolder.getUIDNext() <= lastUid + 1) {
+            log.info("No new messages in {} (last UID {})", mailbox, lastUid);
+            return FetchResult.empty();
+        }
+
+        // "n:*" always returns the newest message, even when its UID is below n
+        long start = System.nanoTime();
+        Message[] candidates = uidFolder.getMessagesByUID(lastUid + 1, UIDFolder.LASTUID);
+        List<Message> fresh = new ArrayList<>();
+        for (Message message : candidates) {
+            if (message != null && uidFolder.getUID(message) > lastUid) {
+                fresh.add(message);
+            }
+        }
+        searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        log.info("Found {} new messages in {} above UID {}", fresh.size(), mailbox, lastUid);
+
+        int processCount = Math.min(fresh.size(), limit);
+        Message[] batch = fresh.subList(0, processCount).toArray(new Message[0]);
+        List<Handled> handled = processBatch(batch);
+
+        // Only the unbroken run of handled messages from the start may be committed
+        int prefix = 0;
+        while (prefix < handled.size() && prefix < batch.length
+                && handled.get(prefix).message() == batch[prefix] && handled.get(prefix).ok()) {
+            prefix++;
+        }
+        long[] uids = new long[prefix];
+        String[] keys = new String[prefix];
+        for (int i = 0; i < prefix; i++) {
+            uids[i] = uidFolder.getUID(batch[i]);
+            keys[i] = handled.get(i).messageKey();
+        }
+
+        return new FetchResult(requestsOf(handled), fresh.size(), new SyncMark(mailbox, uidValidity, uids, keys));
+    }
+
+    /**
+     * Start right before the oldest unread message so the switch from unseen mode loses nothing
+     */
+    private long initialLastUid(Folder inbox) throws MessagingException {
+        UIDFolder uidFolder = (UIDFolder) inbox;
+        Message[] unread = inbox.search(new FlagTerm(new Flags(Flags.Flag.SEEN), false));
+        if (unread.length > 0) {
+            return uidFolder.getUID(unread[0]) - 1;
+        }
+        if (inbox instanceof IMAPFolder imapFolder) {
+            return Math.max(imapFolder.getUIDNext() - 1, 0);
+        }
+        int count = inbox.getMessageCount();
+        return count > 0 ? uidFolder.getUID(inbox.getMessage(count)) : 0;
+    }
+
+    /**
+     * Convert messages to requests and mark them as read
+     */
+    public List<RequestDto> processMessages(Message[] messages) {
+        return requestsOf(processBatch(messages));
+    }
+
+    /**
+     * Outcome of one message of a batch: parsed into {@code request}, skipped as an already
+     * ingested duplicate ({@code request} is null), or failed
+     */
+    private record Handled(Message message, String messageKey, RequestDto request, boolean ok) {
+    }
+
+    private static List<RequestDto> requestsOf(List<Handled> handled) {
+        List<RequestDto> requests = new ArrayList<>(handled.size());
+        for (Handled outcome : handled) {
+            if (outcome.request() != null) {
+                requests.add(outcome.request());
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * Convert messages to requests and mark the handled ones as read. Outcomes are in batch
+     * order. Stops at the first lost connection, so the remaining messages have no outcome and
+     * are retried later.
+     */
+    private List<Handled> processBatch(Message[] messages) {
+        if (messages.length == 0) {
+            return List.of();
+        }
+
+        prefetch(messages);
+
+        // Stage 1: read content over the IMAP connection (serialized per folder anyway),
+        // stage 2: decode and parse on the worker pool while the next message is read
+        List<Message> read = new ArrayList<>();
+        List<String> readKeys = new ArrayList<>();
+        List<CompletableFuture<RequestDto>> parsed = new ArrayList<>();
+        List<Handled> handled = new ArrayList<>(Collections.nCopies(messages.length, null));
+        Set<String> batchKeys = new HashSet<>();
+        int reached = messages.length;
+        for (int i = 0; i < messages.length; i++) {
+            Message message = messages[i];
+            String messageKey = null;
             try {
-                if (inbox != null && inbox.isOpen()) {
-                    inbox.close(false);
+                // Envelope is prefetched, so duplicates are skipped before the body is downloaded
+                messageKey = MessageKeys.of(message);
+                if (!batchKeys.add(messageKey) || deduplicationService.isDuplicate(messageKey)) {
+                    log.info("Skipping already ingested email: subject={}", message.getSubject());
+                    handled.set(i, new Handled(message, messageKey, null, true));
+                    continue;
                 }
-                if (store != null && store.isConnected()) {
-                    store.close();
-                }
-            } catch (MessagingException e) {
-                log.error("Error closing connections: {}", e.getMessage());
+
+                long start = System.nanoTime();
+                ReceivedEmail email = readMessage(message, messageKey);
+                bodyFetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                read.add(message);
+                readKeys.add(messageKey);
+                parsed.add(CompletableFuture.supplyAsync(() -> toRequest(email), mailParseExecutor));
+            } catch (FolderClosedException | StoreClosedException e) {
+                log.error("Connection lost at message {}: {}", i, e.getMessage());
+                reached = i;
+                break;
+            } catch (Exception e) {
+                log.error("Error processing message {}: {}", i, e.getMessage(), e);
+                handled.set(i, new Handled(message, messageKey, null, false));
             }
         }
 
-        return requests;
+        // Collect in arrival order so persistence keeps mailbox ordering
+        Map<Message, Handled> parsedOutcomes = new IdentityHashMap<>();
+        for (int i = 0; i < parsed.size(); i++) {
+            Message message = read.get(i);
+            try {
+                RequestDto request = parsed.get(i).join();
+                parsedOutcomes.put(message, new Handled(message, readKeys.get(i), request, true));
+                log.info("Processed email from: {}", request.getEmail());
+            } catch (CompletionException e) {
+                log.error("Error parsing message {}: {}", i, e.getCause().getMessage(), e.getCause());
+                parsedOutcomes.put(message, new Handled(message, readKeys.get(i), null, false));
+            }
+        }
+
+        List<Handled> outcomes = new ArrayList<>(reached);
+        List<Message> processed = new ArrayList<>();
+        for (int i = 0; i < reached; i++) {
+            Handled outcome = handled.get(i) != null ? handled.get(i) : parsedOutcomes.get(messages[i]);
+            outcomes.add(outcome);
+            if (outcome.ok()) {
+                processed.add(messages[i]);
+            }
+        }
+
+        markAsRead(processed);
+        return outcomes;
+    }
+
+    /**
+     * Load envelope, structure, flags and UID for the whole batch in one FETCH,
+     * so per-message getters below don't hit the server. Bodies stay lazy.
+     */
+    private void prefetch(Message[] messages) {
+        FetchProfile profile = new FetchProfile();
+        profile.add(FetchProfile.Item.ENVELOPE);
+        profile.add(FetchProfile.Item.CONTENT_INFO);
+        profile.add(FetchProfile.Item.FLAGS);
+        profile.add(UIDFolder.FetchProfileItem.UID);
+
+        long start = System.nanoTime();
+        try {
+            messages[0].getFolder().fetch(messages, profile);
+            envelopeFetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (MessagingException e) {
+            // Not fatal: getters fall back to fetching lazily
+            log.warn("Prefetch of {} messages failed: {}", messages.length, e.getMessage());
+        }
+    }
+
+    /**
+     * Mark processed messages as read with a single STORE command
+     */
+    private void markAsRead(List<Message> processed) {
+        if (processed.isEmpty()) {
+            return;
+        }
+
+        try {
+            processed.get(0).getFolder()
+                    .setFlags(processed.toArray(new Message[0]), new Flags(Flags.Flag.SEEN), true);
+        } catch (MessagingException e) {
+            log.error("Error marking {} messages as read: {}", processed.size(), e.getMessage());
+        }
     }
 
     /**
-     * Process single email message
+     * Read subject, sender, body text and attachment of a message
      */
-    private RequestDto processMessage(Message message) throws Exception {
+    private ReceivedEmail readMessage(Message message, String messageKey) throws Exception {
         String subject = message.getSubject();
         String from = message.getFrom()[0].toString();
         
         // Extract body and attachments
-        String bodyText = "";
-        byte[] attachmentData = null;
-        String attachmentName = null;
-        String attachmentType = null;
+        Body body = Body.EMPTY;
+        List<AttachmentDto> attachments = List.of();
 
         if (message.isMimeType("text/plain")) {
-            bodyText = message.getContent().toString();
+            body = new Body(message.getContent().toString(), false);
         } else if (message.isMimeType("text/html")) {
-            bodyText = message.getContent().toString();
+            body = new Body(message.getContent().toString(), true);
         } else if (message.isMimeType("multipart/*")) {
             MimeMultipart mimeMultipart = (MimeMultipart) message.getContent();
-            bodyText = getTextFromMimeMultipart(mimeMultipart);
+            List<Part> attachmentParts = new ArrayList<>();
+            body = getTextFromMimeMultipart(mimeMultipart, attachmentParts);
             
-            // Get first attachment if exists
-            AttachmentInfo attachmentInfo = getFirstAttachment(mimeMultipart);
-            if (attachmentInfo != null) {
-                attachmentData = attachmentInfo.data;
-                attachmentName = attachmentInfo.name;
-                attachmentType = attachmentInfo.contentType;
+            // Stream all attachments found during the walk
+            if (!attachmentParts.isEmpty()) {
+                attachments = attachmentExtractorService.extract(attachmentParts);
             }
         }
 
-        // Parse email to RequestDto
-        RequestDto request = emailParserService.parseEmailToRequest(subject, bodyText, from);
+        return new ReceivedEmail(subject, from, body.text(), body.html(), attachments, messageKey);
+    }
+
+    /**
+     * Parse received email into a request (CPU only, no IMAP access)
+     */
+    private RequestDto toRequest(ReceivedEmail email) {
+        RequestDto request = emailParserService.parseEmailToRequest(
+                email.subject, email.bodyText, email.from, email.html);
         
-        // Add attachment if present
-        if (attachmentData != null) {
-            request.setFile(attachmentData);
-            request.setFileName(attachmentName);
-            request.setFileContentType(attachmentType);
-        }
+        request.setAttachments(new ArrayList<>(email.attachments));
         
         // Store raw content for debugging
-        request.setRawEmailContent(bodyText);
+        request.setRawEmailContent(email.bodyText);
+        request.setMessageKey(email.messageKey);
 
         return request;
     }
 
     /**
-     * Extract text from MimeMultipart
+     * Extract body text from MimeMultipart, collecting attachment parts on the way.
+     * Of multipart/alternative only one part is read: text/plain when present,
+     * otherwise the HTML or a nested multipart.
      */
-    private String getTextFromMimeMultipart(MimeMultipart mimeMultipart) throws Exception {
+    Body getTextFromMimeMultipart(MimeMultipart mimeMultipart, List<Part> attachments) throws Exception {
+        if (new ContentType(mimeMultipart.getContentType()).match("multipart/alternative")) {
+            return getTextFromAlternative(mimeMultipart, attachments);
+        }
+
         StringBuilder result = new StringBuilder();
+        boolean html = false;
         int count = mimeMultipart.getCount();
         
         for (int i = 0; i < count; i++) {
             BodyPart bodyPart = mimeMultipart.getBodyPart(i);
             
-            if (bodyPart.isMimeType("text/plain")) {
+            if (bodyPart.isMimeType("multipart/*")) {
+                // Check the structure first: getContent() would download attachments too
+                Body nested = getTextFromMimeMultipart((MimeMultipart) bodyPart.getContent(), attachments);
+                result.append(nested.text());
+                html |= nested.html();
+            } else if (attachmentExtractorService.isAttachment(bodyPart)) {
+                attachments.add(bodyPart);
+            } else if (bodyPart.isMimeType("text/plain")) {
                 result.append(bodyPart.getContent());
             } else if (bodyPart.isMimeType("text/html")) {
                 result.append(bodyPart.getContent());
-            } else if (bodyPart.getContent() instanceof MimeMultipart) {
-                result.append(getTextFromMimeMultipart((MimeMultipart) bodyPart.getContent()));
+                html = true;
             }
         }
         
-        return result.toString();
+        return new Body(result.toString(), html);
     }
 
-    /**
-     * Get first attachment from multipart message
-     */
-    private AttachmentInfo getFirstAttachment(MimeMultipart mimeMultipart) throws Exception {
-        int count = mimeMultipart.getCount();
-        
+    private Body getTextFromAlternative(MimeMultipart alternative, List<Part> attachments) throws Exception {
+        int count = alternative.getCount();
+        BodyPart chosen = null;
+        for (String type : new String[]{"text/plain", "text/html", "multipart/*"}) {
+            for (int i = 0; i < count && chosen == null; i++) {
+                BodyPart bodyPart = alternative.getBodyPart(i);
+                if (bodyPart.isMimeType(type) && !attachmentExtractorService.isAttachment(bodyPart)) {
+                    chosen = bodyPart;
+                }
+            }
+        }
+
+        Body body = Body.EMPTY;
         for (int i = 0; i < count; i++) {
-            BodyPart bodyPart = mimeMultipart.getBodyPart(i);
-            
-            if (Part.ATTACHMENT.equalsIgnoreCase(bodyPart.getDisposition())) {
-                byte[] data = IOUtils.toByteArray(bodyPart.getInputStream());
-                String name = bodyPart.getFileName();
-                String contentType = bodyPart.getContentType();
-                
-                return new AttachmentInfo(data, name, contentType);
+            BodyPart bodyPart = alternative.getBodyPart(i);
+            if (bodyPart == chosen) {
+                body = bodyPart.isMimeType("multipart/*")
+                        ? getTextFromMimeMultipart((MimeMultipart) bodyPart.getContent(), attachments)
+                        : new Body(bodyPart.getContent().toString(), bodyPart.isMimeType("text/html"));
+            } else if (bodyPart.isMimeType("multipart/*")) {
+                // Text of other renderings is skipped, their inline files are still kept
+                getTextFromMimeMultipart((MimeMultipart) bodyPart.getContent(), attachments);
+            } else if (attachmentExtractorService.isAttachment(bodyPart)) {
+                attachments.add(bodyPart);
             }
         }
-        
-        return null;
+        return body;
+    }
+
+    /**
+     * Body text of a message and whether it is HTML
+     */
+    record Body(String text, boolean html) {
+        static final Body EMPTY = new Body("", false);
     }
 
     /**
-     * Helper class for attachment info
+     * Helper class for message content read from the server
      */
-    private static class AttachmentInfo {
-        byte[] data;
-        String name;
-        String contentType;
+    private static class ReceivedEmail {
+        String subject;
+        String from;
+        String bodyText;
+        boolean html;
+        List<AttachmentDto> attachments;
+        String messageKey;
 
-        AttachmentInfo(byte[] data, String name, String contentType) {
-            this.data = data;
-            this.name = name;
-            this.contentType = contentType;
+        ReceivedEmail(String subject, String from, String bodyText, boolean html,
+                      List<AttachmentDto> attachments, String messageKey) {
+            this.subject = subject;
+            this.from = from;
+            this.bodyText = bodyText;
+            this.html = html;
+            this.attachments = attachments;
+            this.messageKey = messageKey;
         }
     }
 }
@@ -0,0 +1,254 @@
+package com.mailserver.mailprocessor.service;
+
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.IMAPStore;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.*;
+import jakarta.mail.event.MessageCountAdapter;
+import jakarta.mail.event.MessageCountEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Push ingestion: keeps one IMAP connection in IDLE per owned mailbox and processes
+ * messages as soon as the server announces them. Falls back to scheduled polling
+ * when the server does not advertise the IDLE capability.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.mail.mode", havingValue = "idle")
+public class ImapIdleService {
+
+    @Value("${app.mail.batch-size}")
+    private int batchSize;
+
+    @Value("${app.mail.idle.keepalive-ms:600000}")
+    private long keepaliveMs;
+
+    @Value("${app.mail.idle.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    /**
+     * Retry delay while another node owns the mailbox
+     */
+    @Value("${app.mail.poll-interval-ms}")
+    private long ownershipRetryMs;
+
+    private final MailboxRegistry mailboxRegistry;
+    private final EmailReceiverService emailReceiverService;
+    private final RequestService requestService;
+    private final MailboxLockService mailboxLockService;
+
+    private final ScheduledExecutorService keepaliveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "imap-idle-keepalive");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, IdleSession> sessions = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public ImapIdleService(MailboxRegistry mailboxRegistry,
+                           EmailReceiverService emailReceiverService,
+                           RequestService requestService,
+                           MailboxLockService mailboxLockService) {
+        this.mailboxRegistry = mailboxRegistry;
+        this.emailReceiverService = emailReceiverService;
+        this.requestService = requestService;
+        this.mailboxLockService = mailboxLockService;
+    }
+
+    /**
+     * Start one IDLE loop per mailbox once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        for (MailStorePool pool : mailboxRegistry.getPools()) {
+            IdleSession session = new IdleSession(pool);
+            sessions.put(pool.getMailboxKey(), session);
+            session.thread = new Thread(() -> idleLoop(session), "imap-idle-" + pool.getName());
+            session.thread.setDaemon(true);
+            session.thread.start();
+        }
+
+        // Servers drop IDLE after ~30 minutes, NOOP re-arms it
+        keepaliveExecutor.scheduleWithFixedDelay(this::keepalive, keepaliveMs, keepaliveMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * True while the mailbox IDLE connection is healthy; its poller stays quiet meanwhile
+     */
+    public boolean isIdleActive(String mailboxKey) {
+        IdleSession session = sessions.get(mailboxKey);
+        return session != null && session.active;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        keepaliveExecutor.shutdownNow();
+        for (IdleSession session : sessions.values()) {
+            closeQuietly(session.folder);
+            if (session.thread != null) {
+                session.thread.interrupt();
+            }
+        }
+    }
+
+    private void idleLoop(IdleSession session) {
+        MailStorePool pool = session.pool;
+        while (running && session.enabled) {
+            if (!mailboxLockService.tryAcquire(pool.getMailboxKey())) {
+                log.debug("Mailbox {} is owned by another node, waiting", pool.getName());
+                sleep(ownershipRetryMs);
+                continue;
+            }
+
+            Store store = null;
+            try {
+                log.info("Opening IMAP IDLE connection for mailbox {}", pool.getName());
+                store = pool.connectStore();
+
+                if (!(store instanceof IMAPStore imapStore) || !imapStore.hasCapability("IDLE")) {
+                    log.warn("Mail server of {} does not support IDLE, falling back to polling", pool.getName());
+                    session.enabled = false;
+                    return;
+                }
+
+                IMAPFolder inbox = (IMAPFolder) store.getFolder(pool.getFolderName());
+                inbox.open(Folder.READ_WRITE);
+                inbox.addMessageCountListener(new MessageCountAdapter() {
+                    @Override
+                    public void messagesAdded(MessageCountEvent event) {
+                        log.info("Received {} new messages via IDLE in {}", event.getMessages().length, pool.getName());
+                        handleMessages(pool, inbox);
+                    }
+                });
+                session.folder = inbox;
+                session.active = true;
+
+                // Catch up on anything that arrived while we were disconnected
+                handleMessages(pool, inbox);
+
+                while (running && inbox.isOpen()) {
+                    inbox.idle();
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.error("IMAP IDLE connection for {} lost: {}", pool.getName(), e.getMessage());
+                }
+            } finally {
+                session.active = false;
+                closeQuietly(session.folder);
+                session.folder = null;
+                try {
+                    if (store != null && store.isConnected()) {
+                        store.close();
+                    }
+                } catch (MessagingException e) {
+                    log.error("Error closing connections: {}", e.getMessage());
+                }
+            }
+
+            sleep(reconnectDelayMs);
+        }
+    }
+
+    /**
+     * Ingest new messages through the same lookup as polling, so the UID high-water mark
+     * of {@code sync-mode: uid} is honoured, in batches until the mailbox is drained
+     */
+    private void handleMessages(MailStorePool pool, IMAPFolder inbox) {
+        try {
+            boolean more = true;
+            while (running && more) {
+                EmailReceiverService.FetchResult result = emailReceiverService.fetchFromFolder(pool, inbox, batchSize);
+                List<RequestDto> saved = result.requests().isEmpty()
+                        ? List.of()
+                        : requestService.processRequests(result.requests());
+                emailReceiverService.commitSyncMark(result, saved);
+
+                // Stop on a failed save as well, the next announcement or reconnect retries it
+                boolean handled = !result.requests().isEmpty()
+                        || (result.syncMark() != null && result.syncMark().uids().length > 0);
+                more = result.backlog() > batchSize && handled && saved.size() == result.requests().size();
+            }
+        } catch (Exception e) {
+            log.error("Error processing pushed messages: {}", e.getMessage(), e);
+        }
+    }
+
+    private void keepalive() {
+        for (IdleSession session : sessions.values()) {
+            IMAPFolder current = session.folder;
+            if (current == null) {
+                continue;
+            }
+
+            // Ownership lost with the lock connection: leave the mailbox to the new owner
+            if (!mailboxLockService.tryAcquire(session.pool.getMailboxKey())) {
+                log.warn("Lost ownership of mailbox {}, closing IDLE connection", session.pool.getName());
+                closeQuietly(current);
+                continue;
+            }
+
+            try {
+                // getMessageCount() on an open folder issues NOOP and interrupts IDLE
+                current.getMessageCount();
+            } catch (MessagingException e) {
+                log.warn("IMAP IDLE keepalive for {} failed: {}", session.pool.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private void sleep(long delayMs) {
+        if (!running) {
+            return;
+        }
+
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeQuietly(Folder target) {
+        try {
+            if (target != null && target.isOpen()) {
+                target.close(false);
+            }
+        } catch (MessagingException e) {
+            log.debug("Error closing IDLE folder: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * IDLE connection state of one mailbox
+     */
+    private static class IdleSession {
+        private final MailStorePool pool;
+        private volatile boolean enabled = true;
+        private volatile boolean active;
+        private volatile IMAPFolder folder;
+        private Thread thread;
+
+        IdleSession(MailStorePool pool) {
+            this.pool = pool;
+        }
+    }
+}
@@ -2,20 +2,49 @@ package com.mailserver.mailprocessor.service;
 
 import com.mailserver.mailprocessor.model.dto.RequestDto;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @Slf4j
 @ConditionalOnProperty(name = "kafka.enabled", havingValue = "true", matchIfMissing = true)
 public class KafkaConsumerExample {
 
+    /**
+     * Consume a batch of requests; a failing record is reported by index so that the records
+     * before it are committed and only the rest is retried
+     */
     @KafkaListener(
         topics = "${app.kafka.topic.requests}",
         groupId = "ai-agent-group",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "batchKafkaListenerContainerFactory"
     )
+    public void consumeRequests(List<ConsumerRecord<String, RequestDto>> records, Acknowledgment ack) {
+        log.info("Received batch of {} requests from Kafka", records.size());
+
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, RequestDto> record = records.get(i);
+            if (record.value() == null) {
+                // Deserialization failed, see ErrorHandlingDeserializer headers
+                throw new BatchListenerFailedException("Undecodable record at offset " + record.offset(), i);
+            }
+
+            try {
+                consumeRequest(record.value());
+            } catch (Exception e) {
+                throw new BatchListenerFailedException("Failed to consume request " + record.key(), e, i);
+            }
+        }
+
+        ack.acknowledge();
+    }
+
     public void consumeRequest(RequestDto request) {
         log.info("=== Received Request from Kafka ===");
         log.info("ID: {}", request.getId());
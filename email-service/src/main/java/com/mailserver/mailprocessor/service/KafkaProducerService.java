@@ -1,14 +1,24 @@
 package com.mailserver.mailprocessor.service;
 
 import com.mailserver.mailprocessor.model.dto.RequestDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaProducerException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -18,36 +28,109 @@ public class KafkaProducerService {
 
     private final KafkaTemplate<String, RequestDto> kafkaTemplate;
 
-    @Value("${app.kafka.topic.requests}")
-    private String requestsTopic;
+    /**
+     * Bounds sends that are not yet acknowledged, so a large drain cannot buffer without limit
+     */
+    private final Semaphore inFlight;
+
+    private final Timer sendTimer;
+    private final Counter sendErrors;
 
-    public KafkaProducerService(KafkaTemplate<String, RequestDto> kafkaTemplate) {
+    public KafkaProducerService(KafkaTemplate<String, RequestDto> kafkaTemplate,
+                                @Value("${app.kafka.producer.max-in-flight:1000}") int maxInFlight,
+                                MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.sendTimer = Timer.builder("mail.kafka.send")
+                .description("Time from send to broker acknowledgement")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sendErrors = meterRegistry.counter("mail.kafka.send.errors");
+        Gauge.builder("mail.kafka.in-flight", inFlight, s -> maxInFlight - s.availablePermits())
+                .description("Sends not yet acknowledged by the broker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Outcome of a batch send; errors are aligned with the sent requests, null for acknowledged ones
+     */
+    public record BatchResult(List<Throwable> errors) {
+
+        public int sent() {
+            return (int) errors.stream().filter(e -> e == null).count();
+        }
+
+        public int failed() {
+            return errors.size() - sent();
+        }
     }
 
     /**
-     * Send request to Kafka topic with timeout
+     * Send request to Kafka topic without waiting for the broker acknowledgement.
+     * Blocks only while the in-flight window is full.
      */
-    public void sendRequest(RequestDto request) {
+    public CompletableFuture<SendResult<String, RequestDto>> sendRequest(String topic, RequestDto request) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<SendResult<String, RequestDto>> future;
+        long start = System.nanoTime();
         try {
-            String key = request.getId().toString();
-            
-            CompletableFuture<SendResult<String, RequestDto>> future = 
-                kafkaTemplate.send(requestsTopic, key, request);
-            
-            // Wait for result with timeout
-            SendResult<String, RequestDto> result = future.get(10, TimeUnit.SECONDS);
-            
-            log.info("Sent request to Kafka: id={}, topic={}, partition={}, offset={}", 
-                    request.getId(),
-                    requestsTopic,
-                    result.getRecordMetadata().partition(),
-                    result.getRecordMetadata().offset());
-            
+            future = kafkaTemplate.send(topic, request.getId().toString(), request);
         } catch (Exception e) {
-            log.error("Failed to send request to Kafka: id={}, error={}", 
-                    request.getId(), e.getMessage());
-            throw new RuntimeException("Kafka send failed", e);
+            inFlight.release();
+            sendErrors.increment();
+            log.error("Failed to send request to Kafka: id={}, error={}", request.getId(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((result, e) -> {
+            inFlight.release();
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (e != null) {
+                sendErrors.increment();
+                log.error("Failed to send request to Kafka: id={}, error={}",
+                        request.getId(), e.getMessage());
+            } else {
+                log.debug("Sent request to Kafka: id={}, topic={}, partition={}, offset={}",
+                        request.getId(),
+                        topic,
+                        result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset());
+            }
+        });
+    }
+
+    /**
+     * Send all requests and complete once every send is acknowledged or failed
+     */
+    public CompletableFuture<BatchResult> sendBatch(String topic, List<RequestDto> requests) {
+        List<CompletableFuture<Throwable>> outcomes = new ArrayList<>(requests.size());
+        for (RequestDto request : requests) {
+            outcomes.add(sendRequest(topic, request).handle((result, e) -> rootCause(e)));
+        }
+
+        return CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<Throwable> errors = new ArrayList<>(outcomes.size());
+                    for (CompletableFuture<Throwable> outcome : outcomes) {
+                        errors.add(outcome.join());
+                    }
+                    BatchResult result = new BatchResult(Collections.unmodifiableList(errors));
+                    log.info("Sent batch of {} requests to Kafka topic {}: {} acknowledged, {} failed",
+                            requests.size(), topic, result.sent(), result.failed());
+                    return result;
+                });
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof KafkaProducerException) && e.getCause() != null) {
+            e = e.getCause();
         }
+        return e;
     }
 }
@@ -0,0 +1,337 @@
+package com.mailserver.mailprocessor.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.mail.*;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of authenticated IMAP stores with an opened folder.
+ * TLS handshake and login are paid once per connection instead of once per poll;
+ * idle connections are kept alive with NOOP and silently reconnected when dropped.
+ * At most {@code size} connections are open at a time, including those in keepalive.
+ */
+@Slf4j
+public class MailStorePool implements AutoCloseable, MeterBinder {
+
+    private static final long KEEPALIVE_WAIT_MS = 100;
+
+    private final String name;
+    private final String host;
+    private final String username;
+    private final String password;
+    private final String folderName;
+    private final int size;
+    private final long validateAfterMs;
+
+    private final Session session;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledFolder> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService keepaliveExecutor;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger open = new AtomicInteger();
+
+    private volatile boolean closed;
+    private volatile Timer connectTimer;
+
+    public MailStorePool(String name, String host, int port, String username, String password,
+                         String folderName, int size, long keepaliveMs, long validateAfterMs) {
+        this.name = name;
+        this.host = host;
+        this.username = username;
+        this.password = password;
+        this.folderName = folderName;
+        this.size = size;
+        this.validateAfterMs = validateAfterMs;
+        this.permits = new Semaphore(size, true);
+
+        Properties properties = new Properties();
+        properties.put("mail.store.protocol", "imaps");
+        properties.put("mail.imaps.host", host);
+        properties.put("mail.imaps.port", port);
+        properties.put("mail.imaps.ssl.enable", "true");
+        properties.put("mail.imaps.ssl.trust", "*");
+        properties.put("mail.imaps.timeout", "10000");
+        properties.put("mail.imaps.connectiontimeout", "10000");
+        this.session = Session.getInstance(properties);
+
+        this.keepaliveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mail-pool-keepalive-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        keepaliveExecutor.scheduleWithFixedDelay(this::keepalive, keepaliveMs, keepaliveMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Connect a new store outside of the pool (e.g. for a dedicated IDLE connection)
+     */
+    public Store connectStore() throws MessagingException {
+        log.info("Connecting to mail server {} for mailbox {}", host, name);
+        long start = System.nanoTime();
+        Store store = session.getStore("imaps");
+        store.connect(host, username, password);
+
+        Timer timer = connectTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return store;
+    }
+
+    /**
+     * Borrow an open folder; blocks while all connections are in use
+     */
+    public PooledFolder borrow() throws MessagingException {
+        if (closed) {
+            throw new IllegalStateException("Mail store pool is closed");
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for mail connection", e);
+        }
+
+        try {
+            while (true) {
+                PooledFolder pooled = idle.pollFirst();
+                if (pooled == null) {
+                    if (reserveConnection()) {
+                        return open();
+                    }
+                    // Every connection is open: one is in keepalive and comes back shortly
+                    pooled = idle.pollFirst(KEEPALIVE_WAIT_MS, TimeUnit.MILLISECONDS);
+                    if (pooled == null) {
+                        continue;
+                    }
+                }
+                if (isUsable(pooled)) {
+                    reused.incrementAndGet();
+                    return pooled;
+                }
+                reconnects.incrementAndGet();
+                closeQuietly(pooled);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.incrementAndGet();
+            permits.release();
+            throw new MessagingException("Interrupted while waiting for mail connection", e);
+        } catch (MessagingException | RuntimeException e) {
+            failures.incrementAndGet();
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a healthy folder to the pool
+     */
+    public void release(PooledFolder pooled) {
+        if (closed || !pooled.folder.isOpen()) {
+            closeQuietly(pooled);
+        } else {
+            pooled.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        }
+        permits.release();
+    }
+
+    /**
+     * Drop a folder whose connection failed during use
+     */
+    public void invalidate(PooledFolder pooled) {
+        failures.incrementAndGet();
+        closeQuietly(pooled);
+        permits.release();
+    }
+
+    /**
+     * Configured mailbox name, used in logs and metrics
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getFolderName() {
+        return folderName;
+    }
+
+    /**
+     * Stable identifier of the pooled mailbox folder, unique across mail servers
+     */
+    public String getMailboxKey() {
+        return username + "@" + host + "/" + folderName;
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(created.get(), reused.get(), reconnects.get(), failures.get(),
+                open.get(), idle.size(), permits.availablePermits());
+    }
+
+    /**
+     * Connect latency and pool counters, tagged with the mailbox name
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        connectTimer = Timer.builder("mail.imap.connect")
+                .description("IMAP connect and login")
+                .tag("mailbox", name)
+                .register(registry);
+
+        FunctionCounter.builder("mail.pool.connections.created", created, AtomicLong::get)
+                .tag("mailbox", name).register(registry);
+        FunctionCounter.builder("mail.pool.connections.reused", reused, AtomicLong::get)
+                .tag("mailbox", name).register(registry);
+        FunctionCounter.builder("mail.pool.connections.reconnects", reconnects, AtomicLong::get)
+                .tag("mailbox", name).register(registry);
+        FunctionCounter.builder("mail.pool.connections.failures", failures, AtomicLong::get)
+                .tag("mailbox", name).register(registry);
+        Gauge.builder("mail.pool.connections.open", open, AtomicInteger::get)
+                .tag("mailbox", name).register(registry);
+        Gauge.builder("mail.pool.connections.idle", idle, BlockingDeque::size)
+                .tag("mailbox", name).register(registry);
+        Gauge.builder("mail.pool.connections.available", permits, Semaphore::availablePermits)
+                .tag("mailbox", name).register(registry);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        keepaliveExecutor.shutdownNow();
+        PooledFolder pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled);
+        }
+    }
+
+    /**
+     * Count a new connection against {@code size}; false when all are open
+     */
+    private boolean reserveConnection() {
+        int current;
+        do {
+            current = open.get();
+            if (current >= size) {
+                return false;
+            }
+        } while (!open.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Open a connection reserved with {@link #reserveConnection}
+     */
+    private PooledFolder open() throws MessagingException {
+        Store store;
+        try {
+            store = connectStore();
+        } catch (MessagingException | RuntimeException e) {
+            open.decrementAndGet();
+            throw e;
+        }
+        try {
+            Folder folder = store.getFolder(folderName);
+            folder.open(Folder.READ_WRITE);
+            created.incrementAndGet();
+            return new PooledFolder(store, folder);
+        } catch (MessagingException | RuntimeException e) {
+            open.decrementAndGet();
+            store.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Cheap local check for recently used folders, NOOP round trip for stale ones
+     */
+    private boolean isUsable(PooledFolder pooled) {
+        if (!pooled.folder.isOpen()) {
+            return false;
+        }
+        if (System.currentTimeMillis() - pooled.lastUsed < validateAfterMs) {
+            return true;
+        }
+        return pooled.store.isConnected();
+    }
+
+    private void keepalive() {
+        for (PooledFolder pooled : List.copyOf(idle)) {
+            // Take the handle out so a concurrent borrow cannot use it mid-NOOP
+            if (!idle.remove(pooled)) {
+                continue;
+            }
+            try {
+                // getMessageCount() on an open IMAP folder issues NOOP
+                pooled.folder.getMessageCount();
+                idle.offerLast(pooled);
+            } catch (Exception e) {
+                log.warn("Mail connection keepalive failed, dropping it: {}", e.getMessage());
+                reconnects.incrementAndGet();
+                closeQuietly(pooled);
+            }
+        }
+        log.debug("Mail store pool {}: {}", name, getStats());
+    }
+
+    /**
+     * Close a pooled connection and free its slot
+     */
+    private void closeQuietly(PooledFolder pooled) {
+        open.decrementAndGet();
+        try {
+            if (pooled.folder.isOpen()) {
+                pooled.folder.close(false);
+            }
+        } catch (Exception e) {
+            log.debug("Error closing folder: {}", e.getMessage());
+        }
+        try {
+            if (pooled.store.isConnected()) {
+                pooled.store.close();
+            }
+        } catch (Exception e) {
+            log.debug("Error closing store: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Store with an opened folder, owned by the pool
+     */
+    public static class PooledFolder {
+        private final Store store;
+        private final Folder folder;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledFolder(Store store, Folder folder) {
+            this.store = store;
+            this.folder = folder;
+        }
+
+        public Folder getFolder() {
+            return folder;
+        }
+    }
+
+    /**
+     * Snapshot of pool counters
+     */
+    public record PoolStats(long created, long reused, long reconnects, long failures,
+                            int open, int idle, int available) {
+    }
+}
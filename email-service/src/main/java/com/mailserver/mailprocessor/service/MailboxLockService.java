@@ -0,0 +1,256 @@
+package com.mailserver.mailprocessor.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mailbox ownership across replicas via Postgres session-level advisory locks.
+ * Locks live on one dedicated connection opened outside the Hikari pool: a pooled session
+ * would outlive {@code close()} and keep its locks. When the connection drops, Postgres
+ * releases them and another node takes the mailbox over on its next attempt.
+ * <p>
+ * Each node also holds a presence lock on that connection, so live nodes can be counted.
+ * A node may take any unowned mailbox, and periodically gives mailboxes back while it owns
+ * more than {@code ceil(M / live nodes)} and another live node owns fewer.
+ */
+@Service
+@Slf4j
+public class MailboxLockService implements MeterBinder {
+
+    /**
+     * First key of the two-key presence locks, the second one is the backend pid
+     */
+    private static final int NODE_LOCK_CLASS = 0x6d61696c;
+
+    /**
+     * Live nodes and the number of mailbox locks each one holds
+     */
+    private static final String NODE_LOAD_SQL = "SELECT n.pid, (SELECT count(*) FROM pg_locks m"
+            + " WHERE m.pid = n.pid AND m.locktype = 'advisory' AND m.objsubid = 1 AND m.granted)"
+            + " FROM pg_locks n WHERE n.locktype = 'advisory' AND n.objsubid = 2 AND n.granted"
+            + " AND n.classid = " + NODE_LOCK_CLASS
+            + " AND n.database = (SELECT oid FROM pg_database WHERE datname = current_database())";
+
+    @Value("${app.mail.locking.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * How often the fair share is recomputed; a mailbox given back is not retaken for this long
+     */
+    @Value("${app.mail.locking.rebalance-interval-ms:30000}")
+    private long rebalanceIntervalMs;
+
+    @Value("${app.mail.locking.validation-timeout-seconds:2}")
+    private int validationTimeoutSeconds;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final MailboxRegistry mailboxRegistry;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Mailboxes given back to other nodes, with the time until which they are not retaken
+     */
+    private final Map<String, Long> shed = new HashMap<>();
+
+    private Connection connection;
+    private long nextRebalanceAt;
+    private int fairShare = Integer.MAX_VALUE;
+    private int toShed;
+
+    public MailboxLockService(DataSourceProperties dataSourceProperties, MailboxRegistry mailboxRegistry) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.mailboxRegistry = mailboxRegistry;
+    }
+
+    /**
+     * Take or confirm ownership of a mailbox; false while another node owns it
+     * or after the mailbox was given back to rebalance ownership
+     */
+    public synchronized boolean tryAcquire(String mailboxKey) {
+        if (!enabled) {
+            return true;
+        }
+
+        try {
+            Connection conn = connection();
+            long now = System.currentTimeMillis();
+            if (now >= nextRebalanceAt) {
+                rebalance(conn);
+                nextRebalanceAt = now + rebalanceIntervalMs;
+            }
+
+            if (held.contains(mailboxKey)) {
+                if (toShed <= 0) {
+                    return true;
+                }
+                toShed--;
+                shed.put(mailboxKey, now + rebalanceIntervalMs);
+                log.info("Giving mailbox {} back to rebalance ({} owned, fair share {})",
+                        mailboxKey, held.size(), fairShare);
+                release(mailboxKey);
+                return false;
+            }
+
+            // A mailbox given back stays free for the others for a while; after that,
+            // anyone may take it if it is still unowned
+            Long shedUntil = shed.get(mailboxKey);
+            if (shedUntil != null) {
+                if (now < shedUntil && held.size() >= fairShare) {
+                    return false;
+                }
+                shed.remove(mailboxKey);
+            }
+
+            try (PreparedStatement statement = conn.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                statement.setLong(1, lockId(mailboxKey));
+                try (ResultSet rs = statement.executeQuery()) {
+                    boolean acquired = rs.next() && rs.getBoolean(1);
+                    if (acquired) {
+                        held.add(mailboxKey);
+                        log.info("Acquired ownership of mailbox {}", mailboxKey);
+                    }
+                    return acquired;
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Failed to acquire lock for mailbox {}: {}", mailboxKey, e.getMessage());
+            dropConnection();
+            return false;
+        }
+    }
+
+    /**
+     * Give up ownership so another node can take the mailbox
+     */
+    public synchronized void release(String mailboxKey) {
+        if (!enabled || !held.remove(mailboxKey) || connection == null) {
+            return;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, lockId(mailboxKey));
+            statement.execute();
+            log.info("Released ownership of mailbox {}", mailboxKey);
+        } catch (SQLException e) {
+            log.warn("Failed to release lock for mailbox {}: {}", mailboxKey, e.getMessage());
+            dropConnection();
+        }
+    }
+
+    /**
+     * Mailboxes owned by this node
+     */
+    public Set<String> getHeld() {
+        return Set.copyOf(held);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.mailboxes.owned", held, Set::size)
+                .description("Mailboxes this node owns")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        // Closing the session releases all its advisory locks
+        dropConnection();
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection != null && connection.isValid(validationTimeoutSeconds)) {
+            return connection;
+        }
+        if (connection != null) {
+            log.warn("Mailbox lock connection lost, giving up ownership of {}", held);
+            dropConnection();
+        }
+        connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        connection.setAutoCommit(true);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_advisory_lock(" + NODE_LOCK_CLASS + ", pg_backend_pid())")) {
+            statement.execute();
+        }
+        nextRebalanceAt = 0;
+        return connection;
+    }
+
+    /**
+     * Recompute the fair share and how many mailboxes to give back: only as many as
+     * the nodes below their share can take
+     */
+    private void rebalance(Connection conn) throws SQLException {
+        int nodes = 0;
+        int deficit = 0;
+        List<Long> loads = new ArrayList<>();
+        try (PreparedStatement statement = conn.prepareStatement(NODE_LOAD_SQL);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                nodes++;
+                loads.add(rs.getLong(2));
+            }
+        }
+
+        int mailboxes = mailboxRegistry.getPools().size();
+        fairShare = nodes == 0 ? Integer.MAX_VALUE : (mailboxes + nodes - 1) / nodes;
+        for (long load : loads) {
+            deficit += (int) Math.max(0, fairShare - load);
+        }
+        // Our own entry never has a deficit while we are above the share
+        toShed = Math.min(Math.max(0, held.size() - fairShare), deficit);
+        if (toShed > 0) {
+            log.info("Owning {} of {} mailboxes with {} live nodes, giving back {}",
+                    held.size(), mailboxes, nodes, toShed);
+        }
+    }
+
+    private void dropConnection() {
+        held.clear();
+        toShed = 0;
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error closing lock connection: {}", e.getMessage());
+        }
+        connection = null;
+    }
+
+    /**
+     * 64-bit advisory lock key derived from the mailbox key
+     */
+    static long lockId(String mailboxKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(("mailbox:" + mailboxKey).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
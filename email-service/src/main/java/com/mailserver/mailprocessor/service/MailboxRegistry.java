@@ -0,0 +1,43 @@
+package com.mailserver.mailprocessor.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Connection pools of all configured mailboxes, one pool per mailbox folder
+ */
+@Slf4j
+public class MailboxRegistry implements AutoCloseable, MeterBinder {
+
+    private final List<MailStorePool> pools;
+
+    public MailboxRegistry(List<MailStorePool> pools) {
+        Set<String> keys = new HashSet<>();
+        for (MailStorePool pool : pools) {
+            if (!keys.add(pool.getMailboxKey())) {
+                throw new IllegalArgumentException("Mailbox configured twice: " + pool.getMailboxKey());
+            }
+        }
+        this.pools = List.copyOf(pools);
+        log.info("Configured {} mailboxes: {}", pools.size(), keys);
+    }
+
+    public List<MailStorePool> getPools() {
+        return pools;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pools.forEach(pool -> pool.bindTo(registry));
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(MailStorePool::close);
+    }
+}
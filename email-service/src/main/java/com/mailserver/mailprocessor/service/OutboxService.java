@@ -0,0 +1,174 @@
+package com.mailserver.mailprocessor.service;
+
+import com.mailserver.mailprocessor.mapper.RequestMapper;
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.mailserver.mailprocessor.model.entity.OutboxEvent;
+import com.mailserver.mailprocessor.model.entity.Request;
+import com.mailserver.mailprocessor.repository.OutboxEventRepository;
+import com.mailserver.mailprocessor.repository.RequestRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for Kafka publishing.
+ * Events reference the request by id; payloads are built from the current row at publish time.
+ */
+@Service
+@Slf4j
+public class OutboxService implements MeterBinder {
+
+    @Value("${app.kafka.topic.requests}")
+    private String requestsTopic;
+
+    @Value("${app.outbox.retry.initial-delay-ms:1000}")
+    private long initialRetryDelayMs;
+
+    @Value("${app.outbox.retry.max-delay-ms:300000}")
+    private long maxRetryDelayMs;
+
+    @Value("${app.outbox.lease-ms:120000}")
+    private long leaseMs;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RequestRepository requestRepository;
+    private final RequestMapper requestMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         RequestRepository requestRepository,
+                         RequestMapper requestMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.requestRepository = requestRepository;
+        this.requestMapper = requestMapper;
+    }
+
+    /**
+     * Pending event ready to be published
+     */
+    public record PendingEvent(Long id, String topic, int attempts, RequestDto request) {
+    }
+
+    /**
+     * Record a request for publishing; must join the transaction that saves the request
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(UUID requestId) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .requestId(requestId)
+                .topic(requestsTopic)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Record several requests for publishing in one batched insert
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<UUID> requestIds) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(requestIds.stream()
+                .map(requestId -> OutboxEvent.builder()
+                        .requestId(requestId)
+                        .topic(requestsTopic)
+                        .nextAttemptAt(now)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Claim due events and load them with their request payloads, oldest first.
+     * Claimed events are leased to this relay: other replicas skip them until the lease
+     * expires, so a relay that dies mid-send only delays its batch.
+     */
+    @Transactional
+    public List<PendingEvent> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.lockDue(now, limit);
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        outboxEventRepository.claim(events.stream().map(OutboxEvent::getId).toList(),
+                now.plusNanos(leaseMs * 1_000_000));
+
+        Map<UUID, Request> requests = requestRepository.findAllWithAttachmentsById(
+                        events.stream().map(OutboxEvent::getRequestId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Request::getId, Function.identity()));
+
+        List<PendingEvent> pending = new ArrayList<>(events.size());
+        List<Long> orphaned = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            Request request = requests.get(event.getRequestId());
+            if (request == null) {
+                log.warn("Request {} no longer exists, dropping outbox event {}", event.getRequestId(), event.getId());
+                orphaned.add(event.getId());
+                continue;
+            }
+            pending.add(new PendingEvent(event.getId(), event.getTopic(), event.getAttempts(), requestMapper.toDto(request)));
+        }
+
+        if (!orphaned.isEmpty()) {
+            outboxEventRepository.markSent(orphaned, LocalDateTime.now());
+        }
+        return pending;
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxEventRepository.markSent(ids, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Schedule a retry with exponential back-off; events are never given up on
+     */
+    @Transactional
+    public void markFailed(Map<Long, String> errors) {
+        for (OutboxEvent event : outboxEventRepository.findAllById(errors.keySet())) {
+            int attempts = event.getAttempts() + 1;
+            long delay = Math.min(initialRetryDelayMs << Math.min(attempts - 1, 20), maxRetryDelayMs);
+
+            event.setAttempts(attempts);
+            event.setLastError(errors.get(event.getId()));
+            event.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+        }
+    }
+
+    /**
+     * Delete events acknowledged before the given time
+     */
+    @Transactional
+    public int purgeSentBefore(LocalDateTime before) {
+        return outboxEventRepository.deleteSentBefore(before);
+    }
+
+    /**
+     * Events not yet acknowledged by Kafka
+     */
+    public long countPending() {
+        return outboxEventRepository.countBySentAtIsNull();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Evaluated on scrape, served by idx_request_outbox_pending
+        Gauge.builder("mail.outbox.pending", this, OutboxService::countPending)
+                .description("Outbox events not yet acknowledged by Kafka")
+                .register(registry);
+    }
+}
@@ -4,11 +4,20 @@ import com.mailserver.mailprocessor.mapper.RequestMapper;
 import com.mailserver.mailprocessor.model.dto.RequestDto;
 import com.mailserver.mailprocessor.model.entity.Request;
 import com.mailserver.mailprocessor.repository.RequestRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -17,19 +26,50 @@ public class RequestService {
 
     private final RequestRepository requestRepository;
     private final RequestMapper requestMapper;
-    private final KafkaProducerService kafkaProducerService;
+    private final OutboxService outboxService;
+    private final DeduplicationService deduplicationService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean kafkaEnabled;
+
+    private final Timer chunkSaveTimer;
+    private final Timer rowSaveTimer;
+    private final Counter saveErrors;
+
+    /**
+     * Requests saved per transaction in processRequests
+     */
+    @Value("${app.persistence.chunk-size:100}")
+    private int chunkSize;
 
     public RequestService(RequestRepository requestRepository,
                          RequestMapper requestMapper,
-                         ObjectProvider<KafkaProducerService> kafkaProducerServiceProvider) {
+                         OutboxService outboxService,
+                         DeduplicationService deduplicationService,
+                         PlatformTransactionManager transactionManager,
+                         ObjectProvider<KafkaProducerService> kafkaProducerServiceProvider,
+                         MeterRegistry meterRegistry) {
         this.requestRepository = requestRepository;
         this.requestMapper = requestMapper;
-        this.kafkaProducerService = kafkaProducerServiceProvider.getIfAvailable();
+        this.outboxService = outboxService;
+        this.deduplicationService = deduplicationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.kafkaEnabled = kafkaProducerServiceProvider.getIfAvailable() != null;
+        this.chunkSaveTimer = Timer.builder("mail.db.save")
+                .description("Transaction saving requests with their outbox events")
+                .tag("mode", "chunk")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rowSaveTimer = Timer.builder("mail.db.save")
+                .description("Transaction saving requests with their outbox events")
+                .tag("mode", "row")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.saveErrors = meterRegistry.counter("mail.db.save.errors");
     }
 
     /**
-     * Process and save request, then send to Kafka
-     * IMPORTANT: Request is saved to DB first to prevent data loss
+     * Process and save request together with its Kafka outbox event
+     * IMPORTANT: Kafka publishing happens in OutboxRelayScheduler after commit, with retries
      */
     @Transactional
     public RequestDto processRequest(RequestDto requestDto) {
@@ -46,16 +86,9 @@ public class RequestService {
                 log.info("Saved request to database: id={}, email={}", 
                     savedRequest.getId(), savedRequest.getEmail());
             
-            // Step 2: Send to Kafka for AI processing (non-blocking, optional)
-            if (kafkaProducerService != null) {
-                try {
-                    kafkaProducerService.sendRequest(savedDto);
-                } catch (Exception kafkaError) {
-                    // Request is already saved in DB, so it won't be lost
-                        log.warn("Failed to send request to Kafka, but it's saved in DB: id={}, error={}", 
-                            savedDto.getId(), kafkaError.getMessage());
-                    // Note: В будущем здесь можно добавить retry механизм или dead letter queue
-                }
+            // Step 2: Record the Kafka publication in the same transaction
+            if (kafkaEnabled) {
+                outboxService.enqueue(savedRequest.getId());
             } else {
                 log.debug("Kafka is disabled, skipping Kafka send");
             }
@@ -69,12 +102,72 @@ public class RequestService {
     }
 
     /**
-     * Process multiple requests
+     * Process multiple requests in chunks, each saved with batched inserts in one transaction.
+     * A chunk that fails is retried row by row, so one bad row only loses itself.
+     *
+     * @return saved requests; failed rows are logged and left out
      */
-    @Transactional
     public List<RequestDto> processRequests(List<RequestDto> requests) {
-        return requests.stream()
-                .map(this::processRequest)
-                .toList();
+        List<RequestDto> saved = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<RequestDto> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            try {
+                List<RequestDto> savedChunk = chunkSaveTimer.recordCallable(
+                        () -> transactionTemplate.execute(status -> saveChunk(chunk)));
+                deduplicationService.remember(savedChunk.stream().map(RequestDto::getMessageKey).toList());
+                saved.addAll(savedChunk);
+            } catch (Exception e) {
+                log.warn("Batch insert of {} requests failed, retrying row by row: {}", chunk.size(), e.getMessage());
+                saved.addAll(saveRowByRow(chunk));
+            }
+        }
+        return saved;
+    }
+
+    private List<RequestDto> saveChunk(List<RequestDto> chunk) {
+        List<Request> entities = requestRepository.saveAll(chunk.stream().map(requestMapper::toEntity).toList());
+        // Flush here so constraint violations surface inside the try of processRequests
+        requestRepository.flush();
+
+        if (kafkaEnabled) {
+            outboxService.enqueueAll(entities.stream().map(Request::getId).toList());
+        }
+
+        log.info("Saved {} requests to database in one batch", entities.size());
+        return entities.stream().map(requestMapper::toDto).toList();
+    }
+
+    private List<RequestDto> saveRowByRow(List<RequestDto> chunk) {
+        List<RequestDto> saved = new ArrayList<>(chunk.size());
+        for (RequestDto requestDto : chunk) {
+            try {
+                saved.add(rowSaveTimer.recordCallable(
+                        () -> transactionTemplate.execute(status -> processRequest(requestDto))));
+                deduplicationService.remember(Collections.singletonList(requestDto.getMessageKey()));
+            } catch (DataIntegrityViolationException e) {
+                if (requestDto.getMessageKey() != null
+                        && requestRepository.existsByMessageKey(requestDto.getMessageKey())) {
+                    log.info("Skipping already ingested email: email={}, subject={}",
+                            requestDto.getEmail(), requestDto.getEmailSubject());
+                    deduplicationService.remember(Collections.singletonList(requestDto.getMessageKey()));
+                } else {
+                    saveErrors.increment();
+                    log.error("Failed to save request: email={}, subject={}, error={}",
+                            requestDto.getEmail(), requestDto.getEmailSubject(), rootMessage(e));
+                }
+            } catch (Exception e) {
+                saveErrors.increment();
+                log.error("Failed to save request: email={}, subject={}, error={}",
+                        requestDto.getEmail(), requestDto.getEmailSubject(), rootMessage(e));
+            }
+        }
+        return saved;
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null && e.getCause() != e) {
+            e = e.getCause();
+        }
+        return e.getMessage();
     }
 }
@@ -0,0 +1,77 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.model.dto.AttachmentDto;
+import com.mailserver.mailprocessor.service.AttachmentExtractorService;
+import com.mailserver.mailprocessor.service.AttachmentStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.activation.DataHandler;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.util.ByteArrayDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttachmentLimitsTest {
+
+    @TempDir
+    Path dir;
+
+    private AttachmentStorageService storage;
+    private AttachmentExtractorService extractor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new AttachmentStorageService();
+        ReflectionTestUtils.setField(storage, "attachmentsDir", dir.toString());
+        storage.init();
+
+        extractor = new AttachmentExtractorService(storage, Runnable::run, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(extractor, "maxPartBytes", 1000L);
+        ReflectionTestUtils.setField(extractor, "maxMessageBytes", 100L);
+        ReflectionTestUtils.setField(extractor, "allowedTypes", List.of("*/*"));
+    }
+
+    @Test
+    void testPartsOfUnknownSizeCountAgainstMessageLimit() throws Exception {
+        List<Part> parts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            parts.add(part("file" + i + ".bin", (byte) i, 40));
+            assertEquals(-1, parts.get(i).getSize());
+        }
+
+        List<AttachmentDto> attachments = extractor.extract(parts);
+        assertEquals(List.of("file0.bin", "file1.bin"), attachments.stream().map(AttachmentDto::getFileName).toList());
+    }
+
+    @Test
+    void testAbortedPartGivesItsBytesBack() {
+        AtomicLong budget = new AtomicLong(100);
+        assertThrows(IOException.class, () -> storage.store(new ByteArrayInputStream(new byte[150]), 1000, budget));
+        assertEquals(100, budget.get());
+
+        assertThrows(IOException.class, () -> storage.store(new ByteArrayInputStream(new byte[80]), 50, budget));
+        assertEquals(100, budget.get());
+    }
+
+    private static Part part(String fileName, byte fill, int size) throws Exception {
+        byte[] content = new byte[size];
+        Arrays.fill(content, fill);
+        MimeBodyPart part = new MimeBodyPart();
+        part.setDataHandler(new DataHandler(new ByteArrayDataSource(content, "application/octet-stream")));
+        part.setFileName(fileName);
+        part.setDisposition(Part.ATTACHMENT);
+        return part;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.service.AttachmentExtractorService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttachmentTypesTest {
+
+    private static final List<String> DEFAULTS = List.of("application/pdf", "image/*", "text/*",
+            "application/msword", "application/vnd.openxmlformats-officedocument.*", "message/rfc822");
+
+    @Test
+    void testDocxMatchesPrefixPattern() {
+        assertTrue(AttachmentExtractorService.isAllowedType(
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document", DEFAULTS));
+        assertTrue(AttachmentExtractorService.isAllowedType(
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", DEFAULTS));
+    }
+
+    @Test
+    void testExactAndWildcardPatterns() {
+        assertTrue(AttachmentExtractorService.isAllowedType("application/pdf", DEFAULTS));
+        assertTrue(AttachmentExtractorService.isAllowedType("image/png", DEFAULTS));
+        assertTrue(AttachmentExtractorService.isAllowedType("application/x-msdownload", List.of("*/*")));
+    }
+
+    @Test
+    void testUnlistedTypeIsRejected() {
+        assertFalse(AttachmentExtractorService.isAllowedType("application/x-msdownload", DEFAULTS));
+        assertFalse(AttachmentExtractorService.isAllowedType("application/vnd.ms-excel", DEFAULTS));
+    }
+}
@@ -0,0 +1,160 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.mailserver.mailprocessor.parser.HtmlText;
+import com.mailserver.mailprocessor.parser.QuoteTrimmer;
+import com.mailserver.mailprocessor.service.EmailParserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyTextTest {
+
+    @Test
+    void testHtmlBlocksBecomeLines() {
+        String html = """
+            <html><head><title>Заявка</title><style>p { color: red; }</style></head>
+            <body><p>Организация: ООО&nbsp;Тест &amp; Ко</p>
+            <div>ФИО:   Иванов
+              Иван</div>Телефон: +7 (999) 123-45-67<br>Серийный номер: ABC123456
+            <script>var x = "<p>not text</p>";</script><!-- <p>comment</p> --></body></html>
+            """;
+
+        assertEquals("""
+            Организация: ООО Тест & Ко
+            ФИО: Иванов Иван
+            Телефон: +7 (999) 123-45-67
+            Серийный номер: ABC123456""", HtmlText.toText(html));
+    }
+
+    @Test
+    void testHtmlDecodesEntitiesAndKeepsStrayMarkup() {
+        assertEquals("«a < b» — 5 > 3 & x;© €", HtmlText.toText("&laquo;a < b&raquo; &mdash; 5 &gt; 3 &amp; x;&#169; &#x20AC;"));
+        assertEquals("AT&T &unknown;", HtmlText.toText("AT&T &unknown;"));
+    }
+
+    @Test
+    void testHtmlSkipsQuotesAndSignature() {
+        String html = """
+            <div>Прибор не включается</div>
+            <blockquote><div>старое <blockquote>очень старое</blockquote> письмо</div></blockquote>
+            <div>Заводской номер: ZN-777</div>
+            <div class="gmail_signature"><div>Иван, инженер</div></div>
+            <div class="gmail_quote">On Mon, support wrote:<blockquote>Уточните номер</blockquote></div>
+            <p>после цитаты</p>
+            """;
+
+        assertEquals("Прибор не включается\nЗаводской номер: ZN-777", HtmlText.toText(html));
+    }
+
+    @Test
+    void testTrimQuotedReplyAndSignature() {
+        String text = """
+            Добрый день!
+            Заводской номер: ZN-777
+            > Уточните заводской номер
+            Спасибо
+
+            --\s
+            Иван Иванов
+            +7 999 123-45-67
+            """;
+
+        assertEquals("Добрый день!\nЗаводской номер: ZN-777\nСпасибо", QuoteTrimmer.trim(text));
+    }
+
+    @Test
+    void testTrimAttributionAndOriginalMessage() {
+        String gmail = """
+            Прибор снова сломался.
+
+            On Mon, Jan 15, 2024 at 10:00 AM Support <
+            support@company.ru> wrote:
+
+            > Проблема решена?
+            """;
+        assertEquals("Прибор снова сломался.", QuoteTrimmer.trim(gmail));
+
+        String outlook = """
+            Высылаю фото.
+            -----Original Message-----
+            From: Support
+            Sent: Monday, January 15, 2024
+            """;
+        assertEquals("Высылаю фото.", QuoteTrimmer.trim(outlook));
+
+        String headers = """
+            Высылаю фото.
+
+            От: Поддержка <support@company.ru>
+            Отправлено: 15 января 2024 г.
+            Тема: Заявка
+            """;
+        assertEquals("Высылаю фото.", QuoteTrimmer.trim(headers));
+    }
+
+    @Test
+    void testTrimKeepsTextWithoutHistory() {
+        String text = "ФИО: Иванов\nКлиент написал: прибор не работает";
+        assertEquals(text, QuoteTrimmer.trim(text));
+
+        // Nothing but a quote: keep the text rather than lose it
+        assertEquals("> только цитата", QuoteTrimmer.trim("> только цитата\n"));
+    }
+
+    @Test
+    void testTrimKeepsSignatureOnRequest() {
+        String text = """
+            Прибор не включается
+            > Уточните номер
+
+            --\s
+            Иван Иванов
+            Организация: ООО Ромашка
+            +7 999 123-45-67
+            """;
+
+        assertEquals("Прибор не включается\n\n-- \nИван Иванов\nОрганизация: ООО Ромашка\n+7 999 123-45-67",
+                QuoteTrimmer.trim(text, true));
+        assertEquals("Прибор не включается", QuoteTrimmer.trim(QuoteTrimmer.trim(text, true)));
+    }
+
+    @Test
+    void testHtmlKeepsSignatureOnRequest() {
+        String html = """
+            <div>Прибор не включается</div>
+            <div class="gmail_signature"><div>Иван Иванов</div><div>+7 999 123-45-67</div></div>
+            <div class="gmail_quote">On Mon, support wrote:<blockquote>Уточните номер</blockquote></div>
+            """;
+
+        assertEquals("Прибор не включается\n-- \nИван Иванов\n+7 999 123-45-67", HtmlText.toText(html, true));
+    }
+
+    @Test
+    void testFieldsAreFoundInSignature() throws Exception {
+        EmailParserService parser = new EmailParserService(new ClassPathResource("parser/field-keywords.txt"),
+                new ClassPathResource("parser/category-rules.txt"), new SimpleMeterRegistry());
+
+        String plain = """
+            Прибор не включается после обновления.
+
+            --\s
+            Иван Иванов
+            Организация: ООО Ромашка
+            +7 (999) 123-45-67
+            """;
+        RequestDto request = parser.parseEmailToRequest("Не работает прибор", plain, "ivan@romashka.ru", false);
+        assertEquals("+7 (999) 123-45-67", request.getPhone());
+        assertEquals("ООО Ромашка", request.getOrganization());
+
+        String html = """
+            <div>Прибор не включается после обновления.</div>
+            <div class="gmail_signature"><div>Иван Иванов</div><div>Тел. +7 (999) 123-45-67</div></div>
+            <div class="gmail_quote">On Mon, support wrote:<blockquote>Телефон: +7 000 000-00-00</blockquote></div>
+            """;
+        request = parser.parseEmailToRequest("Не работает прибор", html, "ivan@romashka.ru", true);
+        assertEquals("+7 (999) 123-45-67", request.getPhone());
+    }
+}
@@ -0,0 +1,71 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.model.enums.RequestCategory;
+import com.mailserver.mailprocessor.parser.CategoryClassifier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryClassifierTest {
+
+    private static CategoryClassifier classifier;
+
+    @BeforeAll
+    static void loadRules() throws Exception {
+        try (InputStream in = CategoryClassifierTest.class.getResourceAsStream("/parser/category-rules.txt")) {
+            classifier = CategoryClassifier.load(in);
+        }
+    }
+
+    @Test
+    void testStemMatchesAllWordForms() {
+        CategoryClassifier.Classification result =
+                classifier.classify("Гарантийный случай", "Прибор на гарантии, прошу заменить");
+
+        assertEquals(RequestCategory.WARRANTY, result.category());
+        assertEquals(1.0f, result.score());
+    }
+
+    @Test
+    void testHighestScoreWins() {
+        CategoryClassifier.Classification result =
+                classifier.classify("Вопрос", "Нужен ремонт: после ремонта снова неисправность");
+
+        assertEquals(RequestCategory.REPAIR, result.category());
+        assertEquals(0.75f, result.score());
+    }
+
+    @Test
+    void testTieGoesToEarlierRule() {
+        CategoryClassifier.Classification result =
+                classifier.classify("Вопрос по гарантии", "У меня вопрос по гарантии на прибор");
+
+        assertEquals(RequestCategory.WARRANTY, result.category());
+    }
+
+    @Test
+    void testNoMatchIsOther() {
+        CategoryClassifier.Classification result = classifier.classify("Привет", null);
+
+        assertEquals(RequestCategory.OTHER, result.category());
+        assertEquals(0f, result.score());
+    }
+
+    @Test
+    void testWeightsAndUnknownCategory() throws Exception {
+        CategoryClassifier weighted = CategoryClassifier.load(stream("REPAIR: сбой=3\nCONSULTATION: вопрос\n"));
+
+        assertEquals(RequestCategory.REPAIR, weighted.classify("вопрос вопрос", "сбой").category());
+        assertThrows(IOException.class, () -> CategoryClassifier.load(stream("UNKNOWN: x\n")));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
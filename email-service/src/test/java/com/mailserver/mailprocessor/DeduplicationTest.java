@@ -0,0 +1,80 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.dedup.BloomFilter;
+import com.mailserver.mailprocessor.dedup.MessageKeys;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeduplicationTest {
+
+    @Test
+    void testBloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(MessageKeys.ofMessageId("<" + i + "@mail.test>"));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(MessageKeys.ofMessageId("<" + i + "@mail.test>")));
+        }
+    }
+
+    @Test
+    void testBloomFilterFalsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(MessageKeys.ofMessageId("<" + i + "@mail.test>"));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(MessageKeys.ofMessageId("<" + i + "@mail.test>"))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void testKeyUsesMessageIdWhenPresent() throws Exception {
+        MimeMessage first = message("Заявка", "<abc@mail.test>");
+        MimeMessage resent = message("Re: другая тема", "<abc@mail.test>");
+
+        assertEquals(MessageKeys.of(first), MessageKeys.of(resent));
+        assertEquals(MessageKeys.ofMessageId("abc@mail.test"), MessageKeys.of(first));
+        assertEquals(64, MessageKeys.of(first).length());
+    }
+
+    @Test
+    void testKeyFallsBackToSenderDateAndSubject() throws Exception {
+        MimeMessage message = message("Заявка", null);
+        MimeMessage other = message("Другая заявка", null);
+
+        assertEquals(MessageKeys.of(message), MessageKeys.of(message("Заявка", null)));
+        assertNotEquals(MessageKeys.of(message), MessageKeys.of(other));
+    }
+
+    private static MimeMessage message(String subject, String messageId) throws Exception {
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties())) {
+            @Override
+            protected void updateMessageID() {
+                // Keep the header set below instead of generating a new one
+            }
+        };
+        message.setFrom(new InternetAddress("ivanov@test.ru"));
+        message.setSubject(subject, "UTF-8");
+        message.setSentDate(new Date(1_700_000_000_000L));
+        message.setText("body", "UTF-8");
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+        message.saveChanges();
+        return message;
+    }
+}
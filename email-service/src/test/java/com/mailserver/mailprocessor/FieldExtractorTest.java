@@ -0,0 +1,110 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.parser.FieldExtractor;
+import com.mailserver.mailprocessor.parser.KeywordAutomaton;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldExtractorTest {
+
+    private static FieldExtractor extractor;
+
+    @BeforeAll
+    static void loadKeywords() throws Exception {
+        try (InputStream in = FieldExtractorTest.class.getResourceAsStream("/parser/field-keywords.txt")) {
+            extractor = FieldExtractor.load(in);
+        }
+    }
+
+    @Test
+    void testExtractFieldsFromPlainText() {
+        String body = """
+            Организация: ООО Тестовая компания
+            ФИО: Иванов Иван Иванович
+            Тип прибора: Счетчик электроэнергии
+            Серийный номер: ABC123456
+            Заводской номер: [ZN-777]
+            Страна: Россия
+            Регион: Московская область
+            Проект: Проект А
+            """;
+
+        Map<String, String> fields = extractor.extract(body);
+
+        assertEquals("ООО Тестовая компания", fields.get("organization"));
+        assertEquals("Иванов Иван Иванович", fields.get("fio"));
+        assertEquals("Счетчик электроэнергии", fields.get("deviceType"));
+        assertEquals("ZN-777", fields.get("serialNumber"));
+        assertEquals("Московская область", fields.get("countryRegion"));
+        assertEquals("Проект А", fields.get("project"));
+    }
+
+    @Test
+    void testMatchesPreviousPerKeywordExtraction() {
+        List<String> samples = List.of(
+                "Организация: ООО Ромашка ФИО: Петров Пётр Тип прибора: Датчик Серийный номер: SN-1 Страна: Казахстан",
+                "организация=АО Вектор\nимя: Анна\nфио:\nрегион :  Сибирь  \n",
+                "Добрый день! Прошу помочь с настройкой. Заводской номер {12345} проект - Север",
+                "Без полей вообще",
+                "ФИО: x\nИмя: Мария Ивановна\n");
+
+        for (String sample : samples) {
+            Map<String, String> expected = legacyExtract(sample);
+            Map<String, String> actual = extractor.extract(sample);
+            for (Map.Entry<String, String> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), actual.get(entry.getKey()), "Field " + entry.getKey() + " in: " + sample);
+            }
+        }
+    }
+
+    @Test
+    void testAutomatonReportsOverlappingKeywords() {
+        KeywordAutomaton automaton = new KeywordAutomaton(List.of("he", "she", "his", "hers"));
+        List<String> matches = new ArrayList<>();
+
+        automaton.scan("USHERS", (keyword, start) -> matches.add(keyword + "@" + start));
+
+        assertEquals(List.of("1@1", "0@2", "3@2"), matches);
+    }
+
+    /**
+     * Previous EmailParserService algorithm: one toLowerCase/indexOf/substring/replaceAll per keyword
+     */
+    private static Map<String, String> legacyExtract(String text) {
+        Map<String, String> values = new LinkedHashMap<>();
+        String[][] keywords = {
+                {"организация", "organization"}, {"фио", "fio"}, {"имя", "fio"},
+                {"тип прибора", "deviceType"}, {"серийный номер", "serialNumber"},
+                {"заводской номер", "serialNumber"}, {"проект", "project"},
+                {"страна", "countryRegion"}, {"регион", "countryRegion"}
+        };
+        for (String[] keyword : keywords) {
+            String lowerText = text.toLowerCase();
+            int index = lowerText.indexOf(keyword[0]);
+            if (index == -1) {
+                continue;
+            }
+            String after = text.substring(index + keyword[0].length()).trim();
+            if (after.startsWith(":") || after.startsWith("=")) {
+                after = after.substring(1).trim();
+            }
+            int endIndex = after.indexOf('\n');
+            if (endIndex == -1) {
+                endIndex = Math.min(after.length(), 100);
+            }
+            String value = after.substring(0, endIndex).trim().replaceAll("[<>\\[\\]{}]", "").trim();
+            if (value.length() > 1 && !(keyword[1].equals("fio") && values.containsKey("fio"))) {
+                values.put(keyword[1], value);
+            }
+        }
+        return values;
+    }
+}
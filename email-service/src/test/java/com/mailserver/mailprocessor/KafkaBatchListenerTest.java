@@ -0,0 +1,50 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.mailserver.mailprocessor.service.KafkaConsumerExample;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaBatchListenerTest {
+
+    private final KafkaConsumerExample listener = new KafkaConsumerExample();
+
+    @Test
+    void testBatchIsAcknowledgedOnce() {
+        AtomicInteger acks = new AtomicInteger();
+
+        listener.consumeRequests(List.of(record(0, request()), record(1, request()), record(2, request())),
+                acks::incrementAndGet);
+
+        assertEquals(1, acks.get());
+    }
+
+    @Test
+    void testUndecodableRecordIsReportedByIndex() {
+        AtomicInteger acks = new AtomicInteger();
+        List<ConsumerRecord<String, RequestDto>> records = List.of(
+                record(0, request()), record(1, null), record(2, request()));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> listener.consumeRequests(records, acks::incrementAndGet));
+
+        assertEquals(1, e.getIndex());
+        assertEquals(0, acks.get());
+    }
+
+    private static RequestDto request() {
+        return RequestDto.builder().id(UUID.randomUUID()).email("user@test.ru").build();
+    }
+
+    private static ConsumerRecord<String, RequestDto> record(long offset, RequestDto value) {
+        return new ConsumerRecord<>("email-requests", 0, offset, value != null ? value.getId().toString() : null, value);
+    }
+}
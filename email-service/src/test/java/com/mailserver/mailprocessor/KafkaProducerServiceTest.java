@@ -0,0 +1,90 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.mailserver.mailprocessor.service.KafkaProducerService;
+import com.mailserver.mailprocessor.service.KafkaProducerService.BatchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaProducerServiceTest {
+
+    /**
+     * KafkaTemplate closes the producer after every send, as the real factory hands out a shared instance
+     */
+    private final MockProducer<String, RequestDto> producer =
+            new MockProducer<>(false, new StringSerializer(), new JsonSerializer<>()) {
+                @Override
+                public void close(Duration timeout) {
+                }
+            };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testBatchReportsErrorsPerRequest() throws Exception {
+        KafkaProducerService service = new KafkaProducerService(new KafkaTemplate<>(() -> producer), 10, meterRegistry);
+
+        CompletableFuture<BatchResult> future = service.sendBatch("email-requests", requests(3));
+        assertFalse(future.isDone());
+
+        producer.completeNext();
+        producer.errorNext(new RuntimeException("broker down"));
+        producer.completeNext();
+
+        BatchResult result = future.get(5, TimeUnit.SECONDS);
+        assertEquals(2, result.sent());
+        assertEquals(1, result.failed());
+        assertNull(result.errors().get(0));
+        assertEquals("broker down", result.errors().get(1).getMessage());
+        assertNull(result.errors().get(2));
+
+        assertEquals(3, meterRegistry.timer("mail.kafka.send").count());
+        assertEquals(1.0, meterRegistry.counter("mail.kafka.send.errors").count());
+    }
+
+    @Test
+    void testInFlightWindowBlocksUntilAcknowledged() throws Exception {
+        KafkaProducerService service = new KafkaProducerService(new KafkaTemplate<>(() -> producer), 2, meterRegistry);
+
+        CompletableFuture<BatchResult> future = CompletableFuture.supplyAsync(
+                () -> service.sendBatch("email-requests", requests(3)).join());
+
+        waitForHistory(2);
+        Thread.sleep(100);
+        assertEquals(2, producer.history().size(), "third send must wait for a free slot");
+
+        producer.completeNext();
+        waitForHistory(3);
+        producer.completeNext();
+        producer.completeNext();
+
+        assertEquals(3, future.get(5, TimeUnit.SECONDS).sent());
+    }
+
+    private void waitForHistory(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (producer.history().size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, producer.history().size());
+    }
+
+    private static List<RequestDto> requests(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> RequestDto.builder().id(UUID.randomUUID()).email("user" + i + "@test.ru").build())
+                .toList();
+    }
+}
@@ -0,0 +1,157 @@
+package com.mailserver.mailprocessor;
+
+import com.mailserver.mailprocessor.model.dto.AttachmentDto;
+import com.mailserver.mailprocessor.model.dto.RequestDto;
+import com.mailserver.mailprocessor.model.enums.RequestCategory;
+import com.mailserver.mailprocessor.serialization.RequestAvroDeserializer;
+import com.mailserver.mailprocessor.serialization.RequestAvroMapper;
+import com.mailserver.mailprocessor.serialization.RequestAvroSerializer;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerialization;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestAvroSerializerTest {
+
+    private final RequestAvroSerializer serializer = new RequestAvroSerializer();
+    private final RequestAvroDeserializer deserializer = new RequestAvroDeserializer();
+
+    @Test
+    void testRoundTripKeepsEverythingButRawContent() {
+        deserializer.configure(Map.of(), false);
+        RequestDto request = realisticRequest();
+
+        RequestDto decoded = deserializer.deserialize("email-requests", serializer.serialize("email-requests", request));
+
+        RequestDto expected = realisticRequest();
+        expected.setId(request.getId());
+        expected.setRawEmailContent(null);
+        assertEquals(expected, decoded);
+    }
+
+    @Test
+    void testDecodesRecordsOfPreviousSchema() throws Exception {
+        deserializer.configure(Map.of(), false);
+        RequestDto request = realisticRequest();
+        Schema v1 = RequestAvroMapper.PREVIOUS_SCHEMAS.get(0);
+
+        // Same field values written with the schema that had no messageKey
+        GenericRecord current = RequestAvroMapper.toRecord(request);
+        GenericRecord old = new GenericData.Record(v1);
+        for (Schema.Field field : v1.getFields()) {
+            old.put(field.name(), current.get(field.name()));
+        }
+        byte[] data = new BinaryMessageEncoder<GenericRecord>(GenericData.get(), v1).encode(old).array();
+
+        RequestDto decoded = deserializer.deserialize("email-requests", data);
+        assertEquals(request.getId(), decoded.getId());
+        assertEquals(request.getAttachments(), decoded.getAttachments());
+        assertNull(decoded.getMessageKey());
+    }
+
+    @Test
+    void testDeserializerFallsBackToJson() {
+        deserializer.configure(Map.of(), false);
+        RequestDto request = realisticRequest();
+
+        byte[] json = jsonSerializer().serialize("email-requests", request);
+        RequestDto decoded = deserializer.deserialize("email-requests", json);
+
+        assertEquals(request.getId(), decoded.getId());
+        assertEquals(request.getRawEmailContent(), decoded.getRawEmailContent());
+    }
+
+    @Test
+    void testFormatIsSelectedPerTopic() {
+        DelegatingByTopicSerializer byTopic = new DelegatingByTopicSerializer();
+        byTopic.configure(new HashMap<>(Map.of(
+                DelegatingByTopicSerialization.VALUE_SERIALIZATION_TOPIC_CONFIG,
+                "email-requests:" + RequestAvroSerializer.class.getName(),
+                DelegatingByTopicSerialization.VALUE_SERIALIZATION_TOPIC_DEFAULT, JsonSerializer.class.getName(),
+                JsonSerializer.ADD_TYPE_INFO_HEADERS, false)), false);
+        RequestDto request = realisticRequest();
+
+        assertEquals((byte) 0xC3, byTopic.serialize("email-requests", new RecordHeaders(), request)[0]);
+        assertEquals('{', byTopic.serialize("other-topic", new RecordHeaders(), request)[0]);
+    }
+
+    @Test
+    void testBinaryIsSmallerThanJson() {
+        RequestDto request = realisticRequest();
+
+        int json = jsonSerializer().serialize("email-requests", request).length;
+        int avro = serializer.serialize("email-requests", request).length;
+        request.setRawEmailContent(null);
+        int jsonWithoutRaw = jsonSerializer().serialize("email-requests", request).length;
+
+        assertTrue(avro * 10 < json * 6);
+        assertTrue(avro < jsonWithoutRaw);
+    }
+
+    private static JsonSerializer<RequestDto> jsonSerializer() {
+        JsonSerializer<RequestDto> json = new JsonSerializer<>();
+        json.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        return json;
+    }
+
+    private static RequestDto realisticRequest() {
+        StringBuilder body = new StringBuilder("""
+                Добрый день!
+                Организация: ООО Тестовая компания
+                ФИО: Иванов Иван Иванович
+                Телефон: +7 999 123-45-67
+                Тип прибора: Счетчик электроэнергии
+                Серийный номер: ABC123456
+                Описание проблемы: прибор не включается после грозы, нужен ремонт по гарантии.
+                """);
+        for (int i = 0; i < 10; i++) {
+            body.append("> Здравствуйте! Уточните, пожалуйста, заводской номер прибора.\n");
+        }
+
+        List<AttachmentDto> attachments = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            attachments.add(AttachmentDto.builder()
+                    .fileName("photo-" + i + ".jpg")
+                    .contentType("image/jpeg")
+                    .disposition("attachment")
+                    .size(256_000L)
+                    .sha256("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef")
+                    .ref("01/23/0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef")
+                    .build());
+        }
+
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 12, 30, 15);
+        return RequestDto.builder()
+                .id(UUID.fromString("3f2b8c1e-7d4a-4e2b-9a6f-1c2d3e4f5a6b"))
+                .email("ivanov@test.ru")
+                .organization("ООО Тестовая компания")
+                .fio("Иванов Иван Иванович")
+                .phone("+7 999 123-45-67")
+                .deviceType("Счетчик электроэнергии")
+                .serialNumber("ABC123456")
+                .category(RequestCategory.REPAIR)
+                .confidenceScore(0.75f)
+                .emailSubject("Заявка на ремонт")
+                .emailBody(body.toString())
+                .rawEmailContent(body.toString())
+                .messageKey("0f1e2d3c4b5a69788796a5b4c3d2e1f00f1e2d3c4b5a69788796a5b4c3d2e1f0")
+                .attachments(attachments)
+                .createdAt(time)
+                .updatedAt(time)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.support.operatorservice.service;
+
+import com.support.operatorservice.embedding.EmbeddingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmbeddingService: one 1000-char chunk on the calling thread (chunks per second per core),
+ * a cache hit, and a 256-chunk batch on the embedding pool
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddingBenchmark {
+
+    private static final int BATCH = 256;
+
+    private EmbeddingService uncached;
+    private EmbeddingService cached;
+    private List<String> chunks;
+    private int next;
+
+    @Setup
+    public void setup() {
+        uncached = new EmbeddingService(384, 0, 0);
+        cached = new EmbeddingService(384, 10_000, 0);
+        chunks = KnowledgeCorpus.chunks(BATCH, 1000);
+        cached.embedAll(chunks);
+    }
+
+    @TearDown
+    public void tearDown() {
+        uncached.shutdown();
+        cached.shutdown();
+    }
+
+    @Benchmark
+    public float[] embed() {
+        next = (next + 1) % BATCH;
+        return uncached.embed(chunks.get(next));
+    }
+
+    @Benchmark
+    public float[] embedCached() {
+        next = (next + 1) % BATCH;
+        return cached.embed(chunks.get(next));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<float[]> embedAll() {
+        return uncached.embedAll(chunks);
+    }
+}
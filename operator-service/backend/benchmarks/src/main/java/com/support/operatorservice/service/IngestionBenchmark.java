@@ -0,0 +1,122 @@
+package com.support.operatorservice.service;
+
+import com.support.operatorservice.embedding.EmbeddingService;
+import com.support.operatorservice.vectorstore.ScoredPoint;
+import com.support.operatorservice.vectorstore.VectorPoint;
+import com.support.operatorservice.vectorstore.VectorStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KnowledgeBaseService.uploadDocument end to end for a text-only PDF manual,
+ * with a vector store that only counts the points it receives
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class IngestionBenchmark {
+
+    @Param({"50", "500"})
+    private int pages;
+
+    private KnowledgeBaseService service;
+    private EmbeddingService embeddingService;
+    private MultipartFile file;
+
+    @Setup
+    public void setup() throws IOException {
+        embeddingService = new EmbeddingService(384, 0, 0);
+        service = new KnowledgeBaseService(new CountingVectorStore(), embeddingService);
+        file = new BytesMultipartFile("manual.pdf", KnowledgeCorpus.pdf(pages));
+    }
+
+    @TearDown
+    public void tearDown() {
+        embeddingService.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Object> uploadDocument() throws IOException {
+        return service.uploadDocument(file, "Technical", List.of("manual"));
+    }
+
+    static final class CountingVectorStore implements VectorStore {
+
+        private final AtomicLong points = new AtomicLong();
+
+        @Override
+        public void upsert(List<VectorPoint> batch) {
+            points.addAndGet(batch.size());
+        }
+
+        @Override
+        public List<ScoredPoint> search(float[] vector, int limit, Map<String, Object> filter) {
+            return List.of();
+        }
+
+        @Override
+        public List<Map<String, Object>> scroll(int limit) {
+            return List.of();
+        }
+
+        @Override
+        public void delete(Map<String, Object> filter) {
+        }
+    }
+
+    record BytesMultipartFile(String filename, byte[] content) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/pdf";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return content.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return content.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return content.clone();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.write(dest.toPath(), content);
+        }
+    }
+}
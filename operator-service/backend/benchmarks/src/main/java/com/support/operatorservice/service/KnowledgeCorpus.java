@@ -0,0 +1,104 @@
+package com.support.operatorservice.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic knowledge base text for benchmarks: support manual sentences about devices,
+ * repairs, billing and accounts, shuffled deterministically.
+ */
+final class KnowledgeCorpus {
+
+    private static final String[] SUBJECTS = {
+            "Счетчик электроэнергии", "Прибор учета газа", "Контроллер", "Модем связи", "Блок питания",
+            "Личный кабинет", "Договор обслуживания", "Счет на оплату", "Гарантийный талон", "Датчик давления"};
+
+    private static final String[] PREDICATES = {
+            "не включается после скачка напряжения", "передает показания раз в сутки",
+            "требует поверки каждые восемь лет", "подключается к серверу по протоколу Modbus",
+            "сбрасывает настройки при отключении питания", "выставляется в начале расчетного периода",
+            "продлевается автоматически на следующий год", "восстанавливается по ссылке из письма",
+            "показывает ошибку E12 при перегреве", "принимается в ремонт при наличии серийного номера"};
+
+    private static final String[] DETAILS = {
+            "Проверьте предохранитель и целостность кабеля.", "Обратитесь в сервисный центр с актом осмотра.",
+            "Обновите прошивку до последней версии.", "Оплата возможна картой или по реквизитам.",
+            "Срок рассмотрения заявки составляет три рабочих дня.", "Сохраните пломбы и упаковку прибора.",
+            "Пароль должен содержать не менее восьми символов.", "Подробности приведены в разделе 4 руководства."};
+
+    private static final String[] MANUAL_SENTENCES = {
+            "The meter does not power on after a voltage surge, check the fuse and the cable.",
+            "Readings are sent to the server once a day over Modbus or the GSM modem.",
+            "Calibration is required every eight years and is done at the service center.",
+            "Error E12 means the controller overheated; let it cool down before restarting.",
+            "Warranty repair requires the serial number, the seals and the original package.",
+            "Update the firmware from the settings page before reporting a connection problem.",
+            "The invoice is issued at the start of the billing period and paid by card or transfer.",
+            "Account passwords are restored with the link sent to the registered email address."};
+
+    private KnowledgeCorpus() {
+    }
+
+    /**
+     * Text of about {@code length} chars made of manual sentences
+     */
+    static String text(int length, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(length + 200);
+        while (text.length() < length) {
+            text.append(SUBJECTS[random.nextInt(SUBJECTS.length)]).append(' ')
+                    .append(PREDICATES[random.nextInt(PREDICATES.length)]).append(". ")
+                    .append(DETAILS[random.nextInt(DETAILS.length)])
+                    .append(random.nextInt(6) == 0 ? "\n" : " ");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Distinct chunks of about {@code length} chars, like the ones cut from uploaded documents
+     */
+    static List<String> chunks(int count, int length) {
+        List<String> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            chunks.add(text(length, i));
+        }
+        return chunks;
+    }
+
+    /**
+     * Text-only PDF manual of the given number of A4 pages, 45 lines each
+     */
+    static byte[] pdf(int pages) throws IOException {
+        Random random = new Random(pages);
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int page = 0; page < pages; page++) {
+                PDPage pdPage = new PDPage();
+                document.addPage(pdPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+                    content.beginText();
+                    content.setFont(font, 9);
+                    content.setLeading(15);
+                    content.newLineAtOffset(40, 750);
+                    for (int line = 0; line < 45; line++) {
+                        content.showText(MANUAL_SENTENCES[random.nextInt(MANUAL_SENTENCES.length)]);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
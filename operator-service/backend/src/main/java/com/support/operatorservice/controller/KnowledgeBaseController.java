@@ -3,9 +3,14 @@ package com.support.operatorservice.controller;
 import com.support.operatorservice.model.dto.KnowledgeDocumentDto;
 import com.support.operatorservice.model.dto.SearchRequestDto;
 import com.support.operatorservice.model.dto.SearchResultDto;
+import com.support.operatorservice.model.dto.UploadJobDto;
 import com.support.operatorservice.service.KnowledgeBaseService;
+import com.support.operatorservice.service.UploadJob;
+import com.support.operatorservice.service.UploadJobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,6 +38,7 @@ import java.util.stream.Collectors;
 public class KnowledgeBaseController {
 
     private final KnowledgeBaseService knowledgeBaseService;
+    private final UploadJobService uploadJobService;
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
@@ -45,23 +52,12 @@ public class KnowledgeBaseController {
             @RequestParam(value = "tags", required = false) String tags
     ) {
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "File is empty"));
+            String invalid = validatePdf(file);
+            if (invalid != null) {
+                return ResponseEntity.badRequest().body(Map.of("error", invalid));
             }
 
-            String filename = file.getOriginalFilename();
-            if (filename == null || !filename.toLowerCase().endsWith(".pdf")) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Only PDF files are supported"));
-            }
-
-            List<String> tagList = tags == null || tags.isBlank()
-                    ? Collections.emptyList()
-                    : Arrays.stream(tags.split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isBlank())
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(knowledgeBaseService.uploadDocument(file, category, tagList));
+            return ResponseEntity.ok(knowledgeBaseService.uploadDocument(file, category, parseTags(tags)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (IOException e) {
@@ -73,6 +69,43 @@ public class KnowledgeBaseController {
         }
     }
 
+    /**
+     * Starts the upload in the background; progress is read from {@code GET /upload/jobs/{jobId}}
+     */
+    @PostMapping(value = "/upload/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> startUploadJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "category", defaultValue = "General") String category,
+            @RequestParam(value = "tags", required = false) String tags
+    ) {
+        try {
+            String invalid = validatePdf(file);
+            if (invalid != null) {
+                return ResponseEntity.badRequest().body(Map.of("error", invalid));
+            }
+
+            UploadJob job = uploadJobService.submit(file, category, parseTags(tags));
+            return ResponseEntity.accepted().body(job.toDto());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Too many uploads in progress, try again later"));
+        } catch (IOException e) {
+            log.error("Failed to save upload", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to save upload"));
+        } catch (Exception e) {
+            log.error("Upload failed", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Upload failed"));
+        }
+    }
+
+    @GetMapping("/upload/jobs/{jobId}")
+    public ResponseEntity<UploadJobDto> getUploadJob(@PathVariable String jobId) {
+        return uploadJobService.get(jobId)
+                .map(job -> ResponseEntity.ok(job.toDto()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/search")
     public ResponseEntity<?> search(@RequestBody SearchRequestDto request) {
         if (request == null || request.getQuery() == null || request.getQuery().isBlank()) {
@@ -98,4 +131,28 @@ public class KnowledgeBaseController {
     public ResponseEntity<List<String>> getCategories() {
         return ResponseEntity.ok(knowledgeBaseService.getCategories());
     }
+
+    /**
+     * Error message for a file that is not an uploadable PDF, or null
+     */
+    private static String validatePdf(MultipartFile file) {
+        if (file.isEmpty()) {
+            return "File is empty";
+        }
+
+        String filename = file.getOriginalFilename();
+        if (filename == null || !filename.toLowerCase().endsWith(".pdf")) {
+            return "Only PDF files are supported";
+        }
+        return null;
+    }
+
+    private static List<String> parseTags(String tags) {
+        return tags == null || tags.isBlank()
+                ? Collections.emptyList()
+                : Arrays.stream(tags.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isBlank())
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,146 @@
+package com.support.operatorservice.embedding;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process, CPU-only text embeddings: {@link HashingEmbedder} with an LRU cache of recent
+ * texts and a thread pool for embedding document chunks in parallel.
+ */
+@Slf4j
+@Service
+public class EmbeddingService {
+
+    /**
+     * Batches smaller than this per thread are embedded on the calling thread
+     */
+    private static final int MIN_SLICE = 8;
+
+    private final HashingEmbedder embedder;
+    private final int cacheSize;
+    private final Map<Long, float[]> cache;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public EmbeddingService(@Value("${vector-store.dimension:384}") int dimension,
+                            @Value("${embedding.cache-size:10000}") int cacheSize,
+                            @Value("${embedding.threads:0}") int threads) {
+        this.embedder = new HashingEmbedder(dimension);
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, float[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "embedding-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Embedding engine: hashing, dimension {}, {} threads", dimension, parallelism);
+    }
+
+    public int dimension() {
+        return embedder.dimension();
+    }
+
+    /**
+     * Vector of a text. The array may be shared with the cache and must not be modified.
+     */
+    public float[] embed(String text) {
+        String key = text == null ? "" : text;
+        if (cacheSize <= 0) {
+            return embedder.embed(key);
+        }
+
+        long hash = hash64(key);
+        float[] vector;
+        synchronized (cache) {
+            vector = cache.get(hash);
+        }
+        if (vector == null) {
+            vector = embedder.embed(key);
+            synchronized (cache) {
+                cache.put(hash, vector);
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * Vectors of many texts in their order, computed in parallel
+     */
+    public List<float[]> embedAll(List<String> texts) {
+        if (Math.min(parallelism, texts.size() / MIN_SLICE) <= 1) {
+            List<float[]> vectors = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                vectors.add(embed(text));
+            }
+            return vectors;
+        }
+
+        try {
+            return embedAllAsync(texts).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Vectors of many texts in their order, computed on the embedding pool without blocking
+     * the caller
+     */
+    public CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+        int slices = Math.max(1, Math.min(parallelism, texts.size() / MIN_SLICE));
+        float[][] vectors = new float[texts.size()][];
+        int sliceSize = Math.max(1, (texts.size() + slices - 1) / slices);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[slices];
+        for (int slice = 0; slice < slices; slice++) {
+            int from = slice * sliceSize;
+            int to = Math.min(from + sliceSize, texts.size());
+            futures[slice] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    vectors[i] = embed(texts.get(i));
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(futures).thenApply(ignored -> Arrays.asList(vectors));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 64-bit FNV-1a of the text, the cache key
+     */
+    private static long hash64(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,148 @@
+package com.support.operatorservice.embedding;
+
+import java.util.Arrays;
+
+/**
+ * Text embedding by feature hashing: every word and the character 3-5-grams of every word
+ * are hashed into a fixed number of signed buckets.
+ * <p>
+ * Texts sharing words or word stems get similar vectors, and the n-grams make matching
+ * robust to inflection ("прибор", "прибора", "приборы"). It is a lexical model, not a
+ * language model: synonyms with no common stem do not match. Stop words are skipped and
+ * bucket values are square-rooted before normalization, so frequent terms do not dominate.
+ * Thread-safe.
+ */
+public final class HashingEmbedder {
+
+    private static final int MIN_GRAM = 3;
+    private static final int MAX_GRAM = 5;
+    private static final int MAX_WORD_LENGTH = 40;
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float GRAM_WEIGHT = 0.4f;
+    private static final int WORD_SEED = 0x9747b28c;
+    private static final int GRAM_SEED = 0x5bd1e995;
+
+    private static final String[] STOP_WORDS = {
+            "и", "в", "во", "не", "что", "он", "на", "я", "с", "со", "как", "а", "то", "все", "она", "так",
+            "его", "но", "да", "ты", "к", "у", "же", "вы", "за", "бы", "по", "только", "ее", "мне", "было",
+            "вот", "от", "меня", "еще", "нет", "о", "из", "ему", "когда", "даже", "ну", "ли", "если", "уже",
+            "или", "ни", "быть", "был", "него", "до", "вас", "там", "потом", "себя", "ей", "может", "они",
+            "тут", "где", "есть", "надо", "ней", "для", "мы", "тебя", "их", "чем", "была", "без", "чего",
+            "себе", "под", "будет", "тогда", "кто", "этот", "того", "потому", "этого", "какой", "ним",
+            "здесь", "этом", "один", "тем", "чтобы", "нее", "были", "всех", "можно", "при", "об", "это",
+            "эти", "также", "the", "an", "and", "or", "of", "to", "in", "on", "for", "is", "are", "was",
+            "were", "be", "by", "with", "as", "at", "this", "that", "it", "from", "not", "but", "if",
+            "then", "can", "will", "you", "your", "we", "our"};
+
+    private final int dimension;
+    private final int[] stopWordHashes;
+
+    public HashingEmbedder(int dimension) {
+        this.dimension = dimension;
+        this.stopWordHashes = new int[STOP_WORDS.length];
+        for (int i = 0; i < STOP_WORDS.length; i++) {
+            char[] word = STOP_WORDS[i].toCharArray();
+            stopWordHashes[i] = hash(word, 0, word.length, WORD_SEED);
+        }
+        Arrays.sort(stopWordHashes);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Unit vector of a text, all zeros if it has no words
+     */
+    public float[] embed(String text) {
+        float[] vector = new float[dimension];
+        if (text == null) {
+            return vector;
+        }
+
+        // Word with room for the '<' and '>' boundary marks
+        char[] word = new char[MAX_WORD_LENGTH + 2];
+        int length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (length < MAX_WORD_LENGTH) {
+                    word[++length] = normalize(c);
+                }
+            } else if (length > 0) {
+                addWord(vector, word, length);
+                length = 0;
+            }
+        }
+        if (length > 0) {
+            addWord(vector, word, length);
+        }
+
+        normalize(vector);
+        return vector;
+    }
+
+    private void addWord(float[] vector, char[] word, int length) {
+        if (length < 2) {
+            return;
+        }
+        int wordHash = hash(word, 1, length, WORD_SEED);
+        if (Arrays.binarySearch(stopWordHashes, wordHash) >= 0) {
+            return;
+        }
+        add(vector, wordHash, WORD_WEIGHT);
+
+        word[0] = '<';
+        word[length + 1] = '>';
+        int padded = length + 2;
+        for (int n = MIN_GRAM; n <= MAX_GRAM && n <= padded; n++) {
+            for (int start = 0; start + n <= padded; start++) {
+                add(vector, hash(word, start, n, GRAM_SEED + n), GRAM_WEIGHT);
+            }
+        }
+    }
+
+    private void add(float[] vector, int hash, float weight) {
+        int index = (hash >>> 1) % dimension;
+        vector[index] += (hash & 1) == 0 ? weight : -weight;
+    }
+
+    private static void normalize(float[] vector) {
+        double sum = 0;
+        for (int i = 0; i < vector.length; i++) {
+            float v = vector[i];
+            v = v < 0 ? (float) -Math.sqrt(-v) : (float) Math.sqrt(v);
+            vector[i] = v;
+            sum += v * v;
+        }
+        if (sum == 0) {
+            return;
+        }
+        float scale = (float) (1 / Math.sqrt(sum));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+
+    private static char normalize(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    /**
+     * FNV-1a over the chars with the murmur3 finalizer
+     */
+    private static int hash(char[] chars, int from, int length, int seed) {
+        int h = 0x811c9dc5 ^ seed;
+        for (int i = from, end = from + length; i < end; i++) {
+            h ^= chars[i];
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,51 @@
+package com.support.operatorservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UploadJobDto {
+    
+    @JsonProperty("job_id")
+    private String jobId;
+    
+    private String filename;
+    
+    /**
+     * queued, running, completed or failed
+     */
+    private String status;
+    
+    @JsonProperty("page_count")
+    private Integer pageCount;
+    
+    @JsonProperty("pages_read")
+    private Integer pagesRead;
+    
+    @JsonProperty("chunks_stored")
+    private Integer chunksStored;
+    
+    /**
+     * Same as the response of a synchronous upload, once completed
+     */
+    private Map<String, Object> result;
+    
+    private String error;
+    
+    @JsonProperty("created_at")
+    private OffsetDateTime createdAt;
+    
+    @JsonProperty("finished_at")
+    private OffsetDateTime finishedAt;
+}
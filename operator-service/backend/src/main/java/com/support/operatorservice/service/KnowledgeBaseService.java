@@ -1,152 +1,125 @@
 package com.support.operatorservice.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.support.operatorservice.embedding.EmbeddingService;
 import com.support.operatorservice.model.dto.KnowledgeDocumentDto;
 import com.support.operatorservice.model.dto.SearchResultDto;
+import com.support.operatorservice.vectorstore.ScoredPoint;
+import com.support.operatorservice.vectorstore.VectorPoint;
+import com.support.operatorservice.vectorstore.VectorStore;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class KnowledgeBaseService {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-    private static final int VECTOR_SIZE = 384;
     private static final int CHUNK_SIZE = 1000;
     private static final int CHUNK_OVERLAP = 200;
+    private static final int UPSERT_BATCH = 64;
+    private static final int BATCHES_IN_FLIGHT = 4;
     private static final List<String> CATEGORIES = List.of(
             "General", "Technical", "Billing", "Account", "Product", "Legal"
     );
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-
-    @Value("${qdrant.url}")
-    private String qdrantUrl;
-
-    @Value("${qdrant.api-key:}")
-    private String qdrantApiKey;
-
-    @Value("${qdrant.collection-name:knowledge_base}")
-    private String collectionName;
+    private final VectorStore vectorStore;
+    private final EmbeddingService embeddingService;
 
     public Map<String, Object> uploadDocument(MultipartFile file, String category, List<String> tags) throws IOException {
-        ensureCollection();
-
-        String fullText = extractTextFromPdf(file);
-        int pageCount = countPages(file);
-
-        if (fullText == null || fullText.isBlank()) {
-            throw new IllegalArgumentException("PDF does not contain extractable text");
+        Path pdf = Files.createTempFile("knowledge-upload-", ".pdf");
+        try {
+            file.transferTo(pdf);
+            return ingestDocument(pdf, file.getOriginalFilename(), category, tags, UploadProgress.NONE);
+        } finally {
+            Files.deleteIfExists(pdf);
         }
+    }
 
+    /**
+     * Stores a PDF saved on local disk; the file is left in place
+     */
+    public Map<String, Object> ingestDocument(Path pdf, String originalFilename, String category, List<String> tags,
+                                              UploadProgress progress) throws IOException {
         String safeCategory = (category == null || category.isBlank()) ? "General" : category;
         List<String> safeTags = tags == null ? Collections.emptyList() : tags;
 
         String documentId = UUID.randomUUID().toString();
-        String filename = file.getOriginalFilename() == null ? "document.pdf" : file.getOriginalFilename();
+        String filename = originalFilename == null ? "document.pdf" : originalFilename;
         String title = filename.replaceFirst("\\.[^.]+$", "");
         String uploadedAt = OffsetDateTime.now().toString();
 
-        List<String> chunks = chunkText(fullText);
-        List<Map<String, Object>> points = new ArrayList<>();
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBufferedFile(pdf.toFile()))) {
+            int pageCount = document.getNumberOfPages();
+            progress.started(pageCount);
+
+            Map<String, Object> documentPayload = new HashMap<>();
+            documentPayload.put("document_id", documentId);
+            documentPayload.put("filename", filename);
+            documentPayload.put("title", title);
+            documentPayload.put("category", safeCategory);
+            documentPayload.put("page_count", pageCount);
+            documentPayload.put("uploaded_at", uploadedAt);
+            documentPayload.put("tags", safeTags);
+
+            int chunkCount = ingestPages(document, documentPayload, progress);
+            if (chunkCount == 0) {
+                throw new IllegalArgumentException("PDF does not contain extractable text");
+            }
 
-        for (int index = 0; index < chunks.size(); index++) {
-            String chunk = chunks.get(index);
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("chunk_id", documentId + "_chunk_" + index);
-            payload.put("document_id", documentId);
-            payload.put("filename", filename);
-            payload.put("title", title);
-            payload.put("content", chunk);
-            payload.put("chunk_index", index);
-            payload.put("category", safeCategory);
-            payload.put("page_count", pageCount);
-            payload.put("uploaded_at", uploadedAt);
-            payload.put("tags", safeTags);
-
-            Map<String, Object> point = new HashMap<>();
-            point.put("id", UUID.randomUUID().toString());
-            point.put("vector", generateEmbedding(chunk));
-            point.put("payload", payload);
-            points.add(point);
+            return Map.of(
+                    "document_id", documentId,
+                    "filename", filename,
+                    "chunks", chunkCount,
+                    "page_count", pageCount,
+                    "category", safeCategory
+            );
         }
-
-        Map<String, Object> upsertBody = Map.of("points", points);
-        requestQdrant("PUT", "/collections/" + encode(collectionName) + "/points?wait=true", upsertBody);
-
-        return Map.of(
-                "document_id", documentId,
-                "filename", filename,
-                "chunks", chunks.size(),
-                "page_count", pageCount,
-                "category", safeCategory
-        );
     }
 
     public List<SearchResultDto> search(String query, int limit, String category) {
-        ensureCollection();
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("vector", generateEmbedding(query));
-        body.put("limit", Math.max(1, limit));
-        body.put("with_payload", true);
-
-        if (category != null && !category.isBlank()) {
-            body.put("filter", Map.of(
-                    "must", List.of(Map.of(
-                            "key", "category",
-                            "match", Map.of("value", category)
-                    ))
-            ));
-        }
-
-        JsonNode response = requestQdrant("POST", "/collections/" + encode(collectionName) + "/points/search", body);
-        JsonNode resultArray = response.path("result");
-
-        if (!resultArray.isArray()) {
-            return Collections.emptyList();
-        }
+        Map<String, Object> filter = category == null || category.isBlank()
+                ? Map.of()
+                : Map.of("category", category);
 
         List<SearchResultDto> results = new ArrayList<>();
-        for (JsonNode node : resultArray) {
-            JsonNode payload = node.path("payload");
+        for (ScoredPoint point : vectorStore.search(embeddingService.embed(query), Math.max(1, limit), filter)) {
+            Map<String, Object> payload = point.payload();
             results.add(SearchResultDto.builder()
-                    .documentId(payload.path("document_id").asText(null))
-                    .filename(payload.path("filename").asText(null))
-                    .title(payload.path("title").asText(null))
-                    .content(payload.path("content").asText(null))
-                    .category(payload.path("category").asText(null))
-                    .tags(readTags(payload.path("tags")))
-                    .pageCount(payload.path("page_count").isNumber() ? payload.path("page_count").asInt() : null)
-                    .chunkIndex(payload.path("chunk_index").isNumber() ? payload.path("chunk_index").asInt() : null)
-                    .score(node.path("score").isNumber() ? node.path("score").asDouble() : null)
+                    .documentId(asText(payload.get("document_id")))
+                    .filename(asText(payload.get("filename")))
+                    .title(asText(payload.get("title")))
+                    .content(asText(payload.get("content")))
+                    .category(asText(payload.get("category")))
+                    .tags(readTags(payload.get("tags")))
+                    .pageCount(asInteger(payload.get("page_count")))
+                    .chunkIndex(asInteger(payload.get("chunk_index")))
+                    .score(point.score())
                     .build());
         }
 
@@ -154,26 +127,10 @@ public class KnowledgeBaseService {
     }
 
     public List<KnowledgeDocumentDto> getDocuments() {
-        ensureCollection();
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("limit", 1000);
-        body.put("with_payload", true);
-        body.put("with_vector", false);
-
-        JsonNode response = requestQdrant("POST", "/collections/" + encode(collectionName) + "/points/scroll", body);
-        JsonNode resultNode = response.path("result");
-        JsonNode pointsNode = resultNode.has("points") ? resultNode.path("points") : resultNode;
-
-        if (!pointsNode.isArray()) {
-            return Collections.emptyList();
-        }
-
         Map<String, KnowledgeDocumentDto> docs = new LinkedHashMap<>();
 
-        for (JsonNode point : pointsNode) {
-            JsonNode payload = point.path("payload");
-            String documentId = payload.path("document_id").asText(null);
+        for (Map<String, Object> payload : vectorStore.scroll(1000)) {
+            String documentId = asText(payload.get("document_id"));
             if (documentId == null || documentId.isBlank()) {
                 continue;
             }
@@ -181,7 +138,7 @@ public class KnowledgeBaseService {
             KnowledgeDocumentDto existing = docs.get(documentId);
             if (existing == null) {
                 OffsetDateTime uploadedAt = null;
-                String uploadedRaw = payload.path("uploaded_at").asText(null);
+                String uploadedRaw = asText(payload.get("uploaded_at"));
                 if (uploadedRaw != null && !uploadedRaw.isBlank()) {
                     try {
                         uploadedAt = OffsetDateTime.parse(uploadedRaw);
@@ -190,14 +147,15 @@ public class KnowledgeBaseService {
                     }
                 }
 
+                String category = asText(payload.get("category"));
                 KnowledgeDocumentDto dto = KnowledgeDocumentDto.builder()
                         .documentId(documentId)
-                        .filename(payload.path("filename").asText(null))
-                        .title(payload.path("title").asText(null))
-                        .content(payload.path("content").asText(null))
-                        .category(payload.path("category").asText("General"))
-                        .tags(readTags(payload.path("tags")))
-                        .pageCount(payload.path("page_count").isNumber() ? payload.path("page_count").asInt() : null)
+                        .filename(asText(payload.get("filename")))
+                        .title(asText(payload.get("title")))
+                        .content(asText(payload.get("content")))
+                        .category(category == null ? "General" : category)
+                        .tags(readTags(payload.get("tags")))
+                        .pageCount(asInteger(payload.get("page_count")))
                         .uploadedAt(uploadedAt)
                         .chunkCount(1)
                         .build();
@@ -213,18 +171,7 @@ public class KnowledgeBaseService {
     }
 
     public Map<String, String> deleteDocument(String documentId) {
-        ensureCollection();
-
-        Map<String, Object> body = Map.of(
-                "filter", Map.of(
-                        "must", List.of(Map.of(
-                                "key", "document_id",
-                                "match", Map.of("value", documentId)
-                        ))
-                )
-        );
-
-        requestQdrant("POST", "/collections/" + encode(collectionName) + "/points/delete?wait=true", body);
+        vectorStore.delete(Map.of("document_id", documentId));
         return Map.of("status", "deleted", "document_id", documentId);
     }
 
@@ -232,149 +179,141 @@ public class KnowledgeBaseService {
         return CATEGORIES;
     }
 
-    private void ensureCollection() {
-        try {
-            JsonNode node = requestQdrant("GET", "/collections/" + encode(collectionName), null, true);
-            if (node != null && !node.path("status").isMissingNode()) {
-                return;
-            }
-        } catch (RuntimeException ignored) {
-            // create below
-        }
-
-        Map<String, Object> createBody = Map.of(
-                "vectors", Map.of(
-                        "size", VECTOR_SIZE,
-                        "distance", "Cosine"
-                )
-        );
-        requestQdrant("PUT", "/collections/" + encode(collectionName), createBody);
-    }
-
-    private JsonNode requestQdrant(String method, String path, Object body) {
-        return requestQdrant(method, path, body, false);
-    }
+    /**
+     * Extracts the text page by page and stores its chunks while the next pages are read:
+     * every {@link #UPSERT_BATCH} chunks are embedded on the embedding pool, and at most
+     * {@link #BATCHES_IN_FLIGHT} batches wait for their vectors. Points are handed to the vector
+     * store without waiting for earlier batches to be confirmed. If anything fails once storing
+     * has begun, the chunks of the document are deleted again.
+     *
+     * @return number of chunks stored
+     */
+    private int ingestPages(PDDocument document, Map<String, Object> documentPayload,
+                            UploadProgress progress) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        TextChunker chunker = new TextChunker(CHUNK_SIZE, CHUNK_OVERLAP);
+        Deque<PendingBatch> pending = new ArrayDeque<>();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        List<String> batch = new ArrayList<>(UPSERT_BATCH);
+        boolean storing = false;
 
-    private JsonNode requestQdrant(String method, String path, Object body, boolean allowNotFound) {
         try {
-            HttpRequest.Builder builder = HttpRequest.newBuilder()
-                    .uri(URI.create(normalizeBaseUrl() + path));
-
-            if (qdrantApiKey != null && !qdrantApiKey.isBlank()) {
-                builder.header("api-key", qdrantApiKey);
-            }
-
-            if (body != null) {
-                String json = OBJECT_MAPPER.writeValueAsString(body);
-                builder.header("Content-Type", "application/json");
-                builder.method(method.toUpperCase(Locale.ROOT), HttpRequest.BodyPublishers.ofString(json));
-            } else {
-                builder.method(method.toUpperCase(Locale.ROOT), HttpRequest.BodyPublishers.noBody());
+            for (int page = 1, pages = document.getNumberOfPages(); page <= pages; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                for (String chunk : chunker.append(stripper.getText(document))) {
+                    batch.add(chunk);
+                    if (batch.size() == UPSERT_BATCH) {
+                        pending.add(submit(batch, chunker.count() - batch.size()));
+                        batch = new ArrayList<>(UPSERT_BATCH);
+                        if (pending.size() > BATCHES_IN_FLIGHT) {
+                            storing = true;
+                            writes.add(store(pending.poll(), documentPayload, progress));
+                            checkWrites(writes);
+                        }
+                    }
+                }
+                progress.pageRead(page);
             }
 
-            HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
-
-            if (allowNotFound && response.statusCode() == 404) {
-                return null;
+            batch.addAll(chunker.finish());
+            if (!batch.isEmpty()) {
+                pending.add(submit(batch, chunker.count() - batch.size()));
             }
-
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new IllegalStateException("Qdrant request failed: " + response.statusCode() + " - " + response.body());
+            storing = true;
+            while (!pending.isEmpty()) {
+                writes.add(store(pending.poll(), documentPayload, progress));
             }
-
-            if (response.body() == null || response.body().isBlank()) {
-                return OBJECT_MAPPER.createObjectNode();
+            join(CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)));
+            return chunker.count();
+        } catch (IOException | RuntimeException e) {
+            pending.forEach(waiting -> waiting.vectors().cancel(false));
+            if (storing) {
+                try {
+                    // Let writes in flight land first, so none of them survives the delete
+                    CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new))
+                            .exceptionally(ignored -> null)
+                            .join();
+                    vectorStore.delete(Map.of("document_id", documentPayload.get("document_id")));
+                } catch (RuntimeException cleanup) {
+                    e.addSuppressed(cleanup);
+                }
             }
-
-            return OBJECT_MAPPER.readTree(response.body());
-        } catch (IOException | InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Qdrant request error", e);
+            throw e;
         }
     }
 
-    private String normalizeBaseUrl() {
-        String url = qdrantUrl == null ? "" : qdrantUrl.trim();
-        while (url.endsWith("/")) {
-            url = url.substring(0, url.length() - 1);
-        }
-        return url;
+    private PendingBatch submit(List<String> chunks, int firstIndex) {
+        return new PendingBatch(chunks, firstIndex, embeddingService.embedAllAsync(chunks));
     }
 
-    private String encode(String value) {
-        return URLEncoder.encode(value, StandardCharsets.UTF_8);
-    }
+    private CompletableFuture<Void> store(PendingBatch batch, Map<String, Object> documentPayload,
+                                          UploadProgress progress) {
+        List<float[]> vectors = join(batch.vectors());
 
-    private String extractTextFromPdf(MultipartFile file) throws IOException {
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
-        }
-    }
+        String documentId = (String) documentPayload.get("document_id");
+        List<VectorPoint> points = new ArrayList<>(batch.chunks().size());
+        for (int i = 0; i < batch.chunks().size(); i++) {
+            int index = batch.firstIndex() + i;
+            Map<String, Object> payload = new HashMap<>(documentPayload);
+            payload.put("chunk_id", documentId + "_chunk_" + index);
+            payload.put("content", batch.chunks().get(i));
+            payload.put("chunk_index", index);
 
-    private int countPages(MultipartFile file) throws IOException {
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
-            return document.getNumberOfPages();
+            points.add(new VectorPoint(UUID.randomUUID().toString(), vectors.get(i), payload));
         }
-    }
 
-    private List<String> chunkText(String text) {
-        String normalized = text == null ? "" : text.replace('\r', '\n');
-        List<String> chunks = new ArrayList<>();
-        int start = 0;
-
-        while (start < normalized.length()) {
-            int end = Math.min(start + CHUNK_SIZE, normalized.length());
-            if (end < normalized.length()) {
-                int sentenceBreak = Math.max(normalized.lastIndexOf(". ", end), normalized.lastIndexOf('\n', end));
-                if (sentenceBreak > start + CHUNK_SIZE / 2) {
-                    end = sentenceBreak + 1;
-                }
-            }
-
-            String chunk = normalized.substring(start, end).trim();
-            if (!chunk.isBlank()) {
-                chunks.add(chunk);
-            }
+        return vectorStore.upsertAsync(points).thenRun(() -> progress.chunksStored(points.size()));
+    }
 
-            if (end >= normalized.length()) {
-                break;
+    /**
+     * Rethrows the failure of a finished write and forgets the successful ones
+     */
+    private static void checkWrites(List<CompletableFuture<Void>> writes) {
+        // Join before removing, so a write that fails meanwhile is never dropped unchecked
+        for (Iterator<CompletableFuture<Void>> it = writes.iterator(); it.hasNext(); ) {
+            CompletableFuture<Void> write = it.next();
+            if (write.isDone()) {
+                join(write);
+                it.remove();
             }
-
-            start = Math.max(0, end - CHUNK_OVERLAP);
         }
-
-        return chunks;
     }
 
-    private List<Double> generateEmbedding(String text) {
-        Random random = new Random(text == null ? 0 : text.hashCode());
-        List<Double> vector = new ArrayList<>(VECTOR_SIZE);
-        double normSum = 0.0;
-
-        for (int i = 0; i < VECTOR_SIZE; i++) {
-            double v = (random.nextDouble() * 2.0) - 1.0;
-            vector.add(v);
-            normSum += v * v;
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
+    }
 
-        double norm = Math.sqrt(normSum);
-        if (norm == 0.0) {
-            norm = 1.0;
-        }
+    /**
+     * Chunks whose vectors are being computed, numbered from {@code firstIndex}
+     */
+    private record PendingBatch(List<String> chunks, int firstIndex, CompletableFuture<List<float[]>> vectors) {
+    }
 
-        for (int i = 0; i < vector.size(); i++) {
-            vector.set(i, vector.get(i) / norm);
-        }
+    private static String asText(Object value) {
+        return value == null ? null : value.toString();
+    }
 
-        return vector;
+    private static Integer asInteger(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
     }
 
-    private List<String> readTags(JsonNode tagsNode) {
-        if (tagsNode == null || !tagsNode.isArray()) {
+    private static List<String> readTags(Object tags) {
+        if (!(tags instanceof Collection<?> values)) {
             return Collections.emptyList();
         }
 
-        return OBJECT_MAPPER.convertValue(tagsNode, new TypeReference<List<String>>() {});
+        List<String> result = new ArrayList<>(values.size());
+        for (Object value : values) {
+            result.add(String.valueOf(value));
+        }
+        return result;
     }
 }
@@ -0,0 +1,84 @@
+package com.support.operatorservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts text that arrives piece by piece into overlapping chunks, preferring to end a chunk
+ * at a sentence or line break in its second half.
+ * <p>
+ * Only the text after the last emitted chunk start is kept, so memory does not grow with the
+ * document. The chunks are the same as cutting the whole text at once.
+ */
+final class TextChunker {
+
+    private final int chunkSize;
+    private final int overlap;
+    private final StringBuilder buffer = new StringBuilder();
+    private int emitted;
+
+    TextChunker(int chunkSize, int overlap) {
+        this.chunkSize = chunkSize;
+        this.overlap = overlap;
+    }
+
+    /**
+     * Add text and return the chunks it completes
+     */
+    List<String> append(String text) {
+        int from = buffer.length();
+        buffer.append(text);
+        for (int i = from, n = buffer.length(); i < n; i++) {
+            if (buffer.charAt(i) == '\r') {
+                buffer.setCharAt(i, '\n');
+            }
+        }
+        return drain(false);
+    }
+
+    /**
+     * Chunks of the remaining text, after the last {@link #append}
+     */
+    List<String> finish() {
+        return drain(true);
+    }
+
+    /**
+     * Chunks emitted so far
+     */
+    int count() {
+        return emitted;
+    }
+
+    private List<String> drain(boolean last) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+
+        // A ". " break may start at the chunk end, so two characters past it must be buffered
+        while (start < buffer.length() && (last || buffer.length() > start + chunkSize + 1)) {
+            int end = Math.min(start + chunkSize, buffer.length());
+            if (end < buffer.length()) {
+                int sentenceBreak = Math.max(buffer.lastIndexOf(". ", end), buffer.lastIndexOf("\n", end));
+                if (sentenceBreak > start + chunkSize / 2) {
+                    end = sentenceBreak + 1;
+                }
+            }
+
+            String chunk = buffer.substring(start, end).trim();
+            if (!chunk.isBlank()) {
+                chunks.add(chunk);
+            }
+
+            if (end >= buffer.length()) {
+                start = buffer.length();
+                break;
+            }
+
+            start = Math.max(0, end - overlap);
+        }
+
+        buffer.delete(0, start);
+        emitted += chunks.size();
+        return chunks;
+    }
+}
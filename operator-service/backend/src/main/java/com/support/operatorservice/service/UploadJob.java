@@ -0,0 +1,90 @@
+package com.support.operatorservice.service;
+
+import com.support.operatorservice.model.dto.UploadJobDto;
+
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Document upload running in the background, see {@link UploadJobService}
+ */
+public class UploadJob implements UploadProgress {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String filename;
+    private final OffsetDateTime createdAt = OffsetDateTime.now();
+    private final AtomicInteger chunksStored = new AtomicInteger();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile int pageCount;
+    private volatile int pagesRead;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+    private volatile OffsetDateTime finishedAt;
+
+    UploadJob(String id, String filename) {
+        this.id = id;
+        this.filename = filename;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public OffsetDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    @Override
+    public void started(int pageCount) {
+        this.pageCount = pageCount;
+        this.status = Status.RUNNING;
+    }
+
+    @Override
+    public void pageRead(int page) {
+        this.pagesRead = page;
+    }
+
+    @Override
+    public void chunksStored(int count) {
+        chunksStored.addAndGet(count);
+    }
+
+    void complete(Map<String, Object> result) {
+        this.result = result;
+        this.finishedAt = OffsetDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.finishedAt = OffsetDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    public UploadJobDto toDto() {
+        return UploadJobDto.builder()
+                .jobId(id)
+                .filename(filename)
+                .status(status.name().toLowerCase(Locale.ROOT))
+                .pageCount(pageCount)
+                .pagesRead(pagesRead)
+                .chunksStored(chunksStored.get())
+                .result(result)
+                .error(error)
+                .createdAt(createdAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.support.operatorservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Knowledge base uploads that run in the background while the client polls their progress.
+ * At most {@code threads + queue-capacity} uploads are accepted at a time, more are rejected
+ * with {@link RejectedExecutionException}. Finished jobs are forgotten after
+ * {@code knowledge.upload.job-retention}.
+ */
+@Slf4j
+@Service
+public class UploadJobService {
+
+    private final KnowledgeBaseService knowledgeBaseService;
+    private final Duration retention;
+    private final ExecutorService executor;
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Running and queued uploads; taken before the upload is written to disk
+     */
+    private final Semaphore slots;
+
+    public UploadJobService(KnowledgeBaseService knowledgeBaseService,
+                            @Value("${knowledge.upload.threads:2}") int threads,
+                            @Value("${knowledge.upload.queue-capacity:20}") int queueCapacity,
+                            @Value("${knowledge.upload.job-retention:1h}") Duration retention) {
+        this.knowledgeBaseService = knowledgeBaseService;
+        this.retention = retention;
+
+        int poolSize = Math.max(1, threads);
+        int capacity = Math.max(1, queueCapacity);
+        this.slots = new Semaphore(poolSize + capacity);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+            Thread thread = new Thread(runnable, "knowledge-upload-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Saves the upload to a temp file, which outlives the request, and queues its ingestion
+     */
+    public UploadJob submit(MultipartFile file, String category, List<String> tags) throws IOException {
+        evictFinished();
+        if (!slots.tryAcquire()) {
+            throw new RejectedExecutionException("Upload queue is full");
+        }
+
+        Path pdf = null;
+        UploadJob job = null;
+        try {
+            pdf = Files.createTempFile("knowledge-upload-", ".pdf");
+            file.transferTo(pdf);
+
+            job = new UploadJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+            jobs.put(job.getId(), job);
+            UploadJob queued = job;
+            Path queuedPdf = pdf;
+            executor.execute(() -> run(queued, queuedPdf, file.getOriginalFilename(), category, tags));
+            return job;
+        } catch (IOException | RuntimeException e) {
+            slots.release();
+            if (job != null) {
+                jobs.remove(job.getId());
+            }
+            if (pdf != null) {
+                Files.deleteIfExists(pdf);
+            }
+            throw e;
+        }
+    }
+
+    public Optional<UploadJob> get(String jobId) {
+        evictFinished();
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(UploadJob job, Path pdf, String filename, String category, List<String> tags) {
+        try {
+            job.complete(knowledgeBaseService.ingestDocument(pdf, filename, category, tags, job));
+        } catch (IllegalArgumentException e) {
+            job.fail(e.getMessage());
+        } catch (IOException e) {
+            log.error("Failed to process PDF", e);
+            job.fail("Failed to process PDF");
+        } catch (Exception e) {
+            log.error("Upload failed", e);
+            job.fail("Upload failed");
+        } finally {
+            slots.release();
+            try {
+                Files.deleteIfExists(pdf);
+            } catch (IOException e) {
+                log.warn("Failed to delete upload temp file {}", pdf, e);
+            }
+        }
+    }
+
+    private void evictFinished() {
+        OffsetDateTime threshold = OffsetDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(threshold));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
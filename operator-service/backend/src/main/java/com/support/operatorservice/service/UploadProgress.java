@@ -0,0 +1,19 @@
+package com.support.operatorservice.service;
+
+/**
+ * Progress of a document upload. Stored chunks are reported from the vector store's threads.
+ */
+public interface UploadProgress {
+
+    UploadProgress NONE = new UploadProgress() {
+    };
+
+    default void started(int pageCount) {
+    }
+
+    default void pageRead(int page) {
+    }
+
+    default void chunksStored(int count) {
+    }
+}
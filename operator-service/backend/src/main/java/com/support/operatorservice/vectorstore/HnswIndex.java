@@ -0,0 +1,467 @@
+package com.support.operatorservice.vectorstore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph (Malkov and Yashunin) over unit vectors compared
+ * by dot product.
+ * <p>
+ * Vectors and layer 0 links, which make up nearly all of the index, are kept in memory-mapped
+ * files. The sparse upper layers are kept on the heap and written to a metadata file by
+ * {@link #flush()}. Not thread-safe: writes must be serialized against reads.
+ */
+final class HnswIndex implements Closeable {
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int VERSION = 1;
+    private static final int RECORDS_PER_SEGMENT = 4096;
+    private static final int MAX_LEVEL = 15;
+
+    /**
+     * Files of an index directory
+     */
+    static final List<String> FILES = List.of("graph.meta", "vectors.bin", "links.bin");
+
+    private final Path metaFile;
+    private final int dimension;
+    private final int m;
+    private final int maxLinks0;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final Random random = new Random(42);
+
+    private final MappedSegments vectors;
+    private final MappedSegments links0;
+
+    /**
+     * Top layer of every node and its links on layers 1..level as {@code {count, ids...}}
+     */
+    private byte[] levels = new byte[1024];
+    private int[][][] upperLinks = new int[1024][][];
+
+    private int count;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * Vector of the node whose links are being selected or pruned
+     */
+    private final float[] candidate;
+
+    HnswIndex(Path directory, int dimension, int m, int efConstruction) throws IOException {
+        this.metaFile = directory.resolve(FILES.get(0));
+        this.dimension = dimension;
+        this.m = m;
+        this.maxLinks0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelFactor = 1 / Math.log(m);
+        this.candidate = new float[dimension];
+
+        this.vectors = new MappedSegments(directory.resolve(FILES.get(1)), dimension * Float.BYTES, RECORDS_PER_SEGMENT);
+        this.links0 = new MappedSegments(directory.resolve(FILES.get(2)), (1 + maxLinks0) * Integer.BYTES, RECORDS_PER_SEGMENT);
+
+        if (Files.exists(metaFile)) {
+            readMeta();
+        }
+        vectors.ensureCapacity(count);
+        links0.ensureCapacity(count);
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Insert a unit vector
+     *
+     * @return node number of the vector
+     */
+    int add(float[] vector) throws IOException {
+        int node = count;
+        vectors.ensureCapacity(node + 1);
+        links0.ensureCapacity(node + 1);
+        writeVector(node, vector);
+        // The file may hold links of a node lost in a crash
+        links0.segment(node).putInt(links0.offset(node), 0);
+
+        int level = randomLevel();
+        grow(node + 1);
+        levels[node] = (byte) level;
+        upperLinks[node] = level == 0 ? null : new int[level][m + 1];
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            count = node + 1;
+            return node;
+        }
+
+        long[] visited = new long[(node >>> 6) + 1];
+        int entry = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            entry = searchLayer(vector, entry, 1, l, null, visited).peekNode();
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeQueue found = searchLayer(vector, entry, efConstruction, l, null, visited);
+            int[] ids = new int[found.size()];
+            float[] scores = new float[found.size()];
+            int n = found.drainBestFirst(ids, scores);
+
+            int[] selected = selectNeighbors(ids, scores, n, l == 0 ? maxLinks0 : m);
+            setLinks(node, l, selected, selected.length);
+            for (int neighbor : selected) {
+                addLink(neighbor, l, node);
+            }
+            entry = ids[0];
+        }
+
+        count = node + 1;
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    /**
+     * Nodes most similar to the query among those accepted by the filter, best first
+     *
+     * @param ef     size of the dynamic candidate list; higher is slower and more accurate
+     * @param accept node filter, null to accept all
+     */
+    Hits search(float[] query, int k, int ef, IntPredicate accept) {
+        if (count == 0) {
+            return new Hits(new int[0], new float[0]);
+        }
+
+        long[] visited = new long[((count - 1) >>> 6) + 1];
+        int entry = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            entry = searchLayer(query, entry, 1, l, null, visited).peekNode();
+        }
+
+        NodeQueue found = searchLayer(query, entry, Math.max(ef, k), 0, accept, visited);
+        int[] nodes = new int[found.size()];
+        float[] scores = new float[found.size()];
+        int n = found.drainBestFirst(nodes, scores);
+        return n <= k ? new Hits(nodes, scores) : new Hits(Arrays.copyOf(nodes, k), Arrays.copyOf(scores, k));
+    }
+
+    /**
+     * Write vectors and links through to the files and save the upper layers
+     */
+    void flush() throws IOException {
+        vectors.force();
+        links0.force();
+
+        Path tmp = metaFile.resolveSibling(metaFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dimension);
+            out.writeInt(m);
+            out.writeInt(count);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            out.write(levels, 0, count);
+            for (int node = 0; node < count; node++) {
+                for (int l = 0; l < levels[node]; l++) {
+                    int[] links = upperLinks[node][l];
+                    for (int i = 0; i <= links[0]; i++) {
+                        out.writeInt(links[i]);
+                    }
+                }
+            }
+        }
+        Files.move(tmp, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        vectors.close();
+        links0.close();
+    }
+
+    private void readMeta() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(metaFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalStateException("Unsupported vector index format: " + metaFile);
+            }
+            int storedDimension = in.readInt();
+            int storedM = in.readInt();
+            if (storedDimension != dimension || storedM != m) {
+                throw new IllegalStateException("Vector index " + metaFile + " was built with dimension "
+                        + storedDimension + " and m " + storedM + ", configured " + dimension + " and " + m);
+            }
+            count = in.readInt();
+            entryPoint = in.readInt();
+            maxLevel = in.readInt();
+
+            grow(count);
+            in.readFully(levels, 0, count);
+            for (int node = 0; node < count; node++) {
+                int level = levels[node];
+                if (level == 0) {
+                    continue;
+                }
+                upperLinks[node] = new int[level][m + 1];
+                for (int l = 0; l < level; l++) {
+                    int[] links = upperLinks[node][l];
+                    links[0] = in.readInt();
+                    for (int i = 1; i <= links[0]; i++) {
+                        links[i] = in.readInt();
+                    }
+                }
+            }
+        }
+    }
+
+    private NodeQueue searchLayer(float[] query, int entry, int ef, int level, IntPredicate accept, long[] visited) {
+        Arrays.fill(visited, 0);
+        NodeQueue candidates = new NodeQueue(ef * 2, true);
+        NodeQueue results = new NodeQueue(ef + 1, false);
+
+        float entryScore = similarity(query, entry);
+        visit(visited, entry);
+        candidates.push(entry, entryScore);
+        if (accept == null || accept.test(entry)) {
+            results.push(entry, entryScore);
+        }
+
+        while (!candidates.isEmpty()) {
+            if (results.size() >= ef && candidates.peekScore() < results.peekScore()) {
+                break;
+            }
+            int current = candidates.pop();
+
+            ByteBuffer links = null;
+            int offset = 0;
+            int[] upper = null;
+            int linkCount;
+            if (level == 0) {
+                links = links0.segment(current);
+                offset = links0.offset(current);
+                linkCount = links.getInt(offset);
+            } else {
+                upper = upperLinks[current][level - 1];
+                linkCount = upper[0];
+            }
+
+            for (int i = 1; i <= linkCount; i++) {
+                int neighbor = level == 0 ? links.getInt(offset + i * Integer.BYTES) : upper[i];
+                // Links written before a crash may point past the saved nodes
+                if (neighbor >= count || !visit(visited, neighbor)) {
+                    continue;
+                }
+                float score = similarity(query, neighbor);
+                if (results.size() < ef || score > results.peekScore()) {
+                    candidates.push(neighbor, score);
+                    if (accept == null || accept.test(neighbor)) {
+                        results.push(neighbor, score);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbour selection heuristic: skip a candidate that is closer to an already selected
+     * neighbour than to the node, then fill up with skipped candidates
+     *
+     * @param ids candidates, most similar first
+     */
+    private int[] selectNeighbors(int[] ids, float[] scores, int n, int maxLinks) {
+        int[] selected = new int[Math.min(n, maxLinks)];
+        int[] skipped = new int[n];
+        int size = 0;
+        int skippedSize = 0;
+
+        for (int i = 0; i < n && size < selected.length; i++) {
+            readVector(ids[i], candidate);
+            boolean diverse = true;
+            for (int j = 0; j < size; j++) {
+                if (similarity(candidate, selected[j]) > scores[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[size++] = ids[i];
+            } else {
+                skipped[skippedSize++] = ids[i];
+            }
+        }
+        for (int i = 0; i < skippedSize && size < selected.length; i++) {
+            selected[size++] = skipped[i];
+        }
+        return selected;
+    }
+
+    /**
+     * Link {@code target} to {@code node}. A full link list drops its least similar link that
+     * is closer to another link than to the target, or the least similar link if all are diverse.
+     */
+    private void addLink(int target, int level, int node) {
+        int maxLinks = level == 0 ? maxLinks0 : m;
+        int[] links = readLinks(target, level);
+        int linkCount = links.length;
+        int[] ids = Arrays.copyOf(links, linkCount + 1);
+        ids[linkCount] = node;
+        if (linkCount < maxLinks) {
+            setLinks(target, level, ids, ids.length);
+            return;
+        }
+
+        readVector(target, candidate);
+        float[] scores = new float[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            scores[i] = similarity(candidate, ids[i]);
+        }
+        sortBestFirst(ids, scores);
+
+        int drop = ids.length - 1;
+        for (int i = ids.length - 1; i > 0 && drop == ids.length - 1; i--) {
+            readVector(ids[i], candidate);
+            for (int j = 0; j < i; j++) {
+                if (similarity(candidate, ids[j]) > scores[i]) {
+                    drop = i;
+                    break;
+                }
+            }
+        }
+        System.arraycopy(ids, drop + 1, ids, drop, ids.length - drop - 1);
+        setLinks(target, level, ids, maxLinks);
+    }
+
+    private int[] readLinks(int node, int level) {
+        if (level > 0) {
+            int[] upper = upperLinks[node][level - 1];
+            return Arrays.copyOfRange(upper, 1, upper[0] + 1);
+        }
+        ByteBuffer links = links0.segment(node);
+        int offset = links0.offset(node);
+        int[] ids = new int[links.getInt(offset)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = links.getInt(offset + (i + 1) * Integer.BYTES);
+        }
+        return ids;
+    }
+
+    private void setLinks(int node, int level, int[] ids, int n) {
+        if (level > 0) {
+            int[] upper = upperLinks[node][level - 1];
+            upper[0] = n;
+            System.arraycopy(ids, 0, upper, 1, n);
+            return;
+        }
+        ByteBuffer links = links0.segment(node);
+        int offset = links0.offset(node);
+        for (int i = 0; i < n; i++) {
+            links.putInt(offset + (i + 1) * Integer.BYTES, ids[i]);
+        }
+        links.putInt(offset, n);
+    }
+
+    private float similarity(float[] query, int node) {
+        ByteBuffer buffer = vectors.segment(node);
+        int offset = vectors.offset(node);
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (int bound = dimension & ~3; i < bound; i += 4, offset += 16) {
+            s0 += query[i] * buffer.getFloat(offset);
+            s1 += query[i + 1] * buffer.getFloat(offset + 4);
+            s2 += query[i + 2] * buffer.getFloat(offset + 8);
+            s3 += query[i + 3] * buffer.getFloat(offset + 12);
+        }
+        for (; i < dimension; i++, offset += 4) {
+            s0 += query[i] * buffer.getFloat(offset);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private void writeVector(int node, float[] vector) {
+        ByteBuffer buffer = vectors.segment(node);
+        int offset = vectors.offset(node);
+        for (int i = 0; i < dimension; i++) {
+            buffer.putFloat(offset + i * Float.BYTES, vector[i]);
+        }
+    }
+
+    /**
+     * Copy the stored unit vector of a node into {@code out}
+     */
+    void readVector(int node, float[] out) {
+        ByteBuffer buffer = vectors.segment(node);
+        int offset = vectors.offset(node);
+        for (int i = 0; i < dimension; i++) {
+            out[i] = buffer.getFloat(offset + i * Float.BYTES);
+        }
+    }
+
+    private int randomLevel() {
+        double level = -Math.log(1 - random.nextDouble()) * levelFactor;
+        return (int) Math.min(level, MAX_LEVEL);
+    }
+
+    private void grow(int size) {
+        if (size > levels.length) {
+            int capacity = Math.max(size, levels.length * 2);
+            levels = Arrays.copyOf(levels, capacity);
+            upperLinks = Arrays.copyOf(upperLinks, capacity);
+        }
+    }
+
+    /**
+     * Mark a node visited
+     *
+     * @return false if it was visited already
+     */
+    private static boolean visit(long[] visited, int node) {
+        int word = node >>> 6;
+        long bit = 1L << node;
+        if ((visited[word] & bit) != 0) {
+            return false;
+        }
+        visited[word] |= bit;
+        return true;
+    }
+
+    private static void sortBestFirst(int[] ids, float[] scores) {
+        for (int i = 1; i < ids.length; i++) {
+            int id = ids[i];
+            float score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                ids[j + 1] = ids[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Search result: node numbers and similarities, best first
+     */
+    record Hits(int[] nodes, float[] scores) {
+    }
+}
@@ -0,0 +1,398 @@
+package com.support.operatorservice.vectorstore;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Embedded vector store: an HNSW index in memory-mapped files under {@code vector-store.hnsw.path},
+ * so the service runs without an external vector database.
+ * <p>
+ * Payloads are kept on the heap and appended to a JSON lines log that is replayed on start.
+ * Deleted points stay in the graph as tombstones that searches skip over, until they make up
+ * {@code compact-ratio} of the nodes: then the index and the log are rebuilt from the live
+ * points in a staging directory and swapped in.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "vector-store.type", havingValue = "hnsw")
+public class HnswVectorStore implements VectorStore {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private static final String LOG_FILE = "payloads.jsonl";
+    private static final String COMPACT_DIR = "compacting";
+
+    /**
+     * Written once the staging directory holds a complete index; its files are then moved in
+     */
+    private static final String COMPACT_DONE = "DONE";
+
+    @Value("${vector-store.hnsw.path:./data/vectors}")
+    private Path path;
+
+    @Value("${vector-store.dimension:384}")
+    private int dimension;
+
+    /**
+     * Links per node on the upper layers, twice as many on layer 0
+     */
+    @Value("${vector-store.hnsw.m:16}")
+    private int m;
+
+    @Value("${vector-store.hnsw.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${vector-store.hnsw.ef-search:64}")
+    private int efSearch;
+
+    /**
+     * Share of deleted nodes that triggers compaction
+     */
+    @Value("${vector-store.hnsw.compact-ratio:0.3}")
+    private double compactRatio;
+
+    /**
+     * Fewer deleted nodes are never compacted, however small the index
+     */
+    @Value("${vector-store.hnsw.compact-min-deleted:1000}")
+    private int compactMinDeleted;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private HnswIndex index;
+    private BufferedWriter payloadLog;
+
+    /**
+     * Point id and payload per node; the payload is null once the point is deleted
+     */
+    private final List<String> ids = new ArrayList<>();
+    private final List<Map<String, Object>> payloads = new ArrayList<>();
+    private final Map<String, Integer> nodesById = new HashMap<>();
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(path);
+        recoverCompaction();
+        load();
+        log.info("Opened vector index at {} with {} points", path, nodesById.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            index.flush();
+            index.close();
+            payloadLog.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(List<VectorPoint> points) {
+        lock.writeLock().lock();
+        try {
+            for (VectorPoint point : points) {
+                if (point.vector().length != dimension) {
+                    throw new IllegalArgumentException("Expected vector of dimension " + dimension
+                            + ", got " + point.vector().length);
+                }
+                Integer existing = nodesById.get(point.id());
+                if (existing != null) {
+                    remove(existing);
+                }
+
+                int node = index.add(normalize(point.vector()));
+                ids.add(point.id());
+                payloads.add(point.payload());
+                nodesById.put(point.id(), node);
+                appendLog(Map.of("node", node, "id", point.id(), "payload", point.payload()));
+            }
+            flush();
+            compactIfNeeded();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Vector index write failed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ScoredPoint> search(float[] vector, int limit, Map<String, Object> filter) {
+        float[] query = normalize(vector);
+        lock.readLock().lock();
+        try {
+            HnswIndex.Hits hits = index.search(query, Math.max(1, limit), efSearch, node -> {
+                Map<String, Object> payload = payloads.get(node);
+                return payload != null && matches(payload, filter);
+            });
+
+            List<ScoredPoint> results = new ArrayList<>(hits.nodes().length);
+            for (int i = 0; i < hits.nodes().length; i++) {
+                int node = hits.nodes()[i];
+                results.add(new ScoredPoint(ids.get(node), hits.scores()[i], payloads.get(node)));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> scroll(int limit) {
+        lock.readLock().lock();
+        try {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (int node = 0; node < payloads.size() && result.size() < limit; node++) {
+                Map<String, Object> payload = payloads.get(node);
+                if (payload != null) {
+                    result.add(payload);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Map<String, Object> filter) {
+        lock.writeLock().lock();
+        try {
+            for (int node = 0; node < payloads.size(); node++) {
+                Map<String, Object> payload = payloads.get(node);
+                if (payload != null && matches(payload, filter)) {
+                    remove(node);
+                }
+            }
+            flush();
+            compactIfNeeded();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Vector index write failed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nodes in the graph, deleted ones included
+     */
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the index and the payload log from the live points, dropping all tombstones
+     */
+    void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            int before = index.size();
+            Path staging = path.resolve(COMPACT_DIR);
+            deleteDirectory(staging);
+            Files.createDirectories(staging);
+
+            try (HnswIndex compacted = new HnswIndex(staging, dimension, m, efConstruction);
+                 BufferedWriter compactedLog = Files.newBufferedWriter(staging.resolve(LOG_FILE), StandardCharsets.UTF_8)) {
+                float[] vector = new float[dimension];
+                for (int node = 0; node < payloads.size(); node++) {
+                    Map<String, Object> payload = payloads.get(node);
+                    if (payload == null) {
+                        continue;
+                    }
+                    index.readVector(node, vector);
+                    int compactedNode = compacted.add(vector);
+                    compactedLog.write(OBJECT_MAPPER.writeValueAsString(
+                            Map.of("node", compactedNode, "id", ids.get(node), "payload", payload)));
+                    compactedLog.newLine();
+                }
+                compactedLog.flush();
+                compacted.flush();
+            }
+            Files.createFile(staging.resolve(COMPACT_DONE));
+
+            index.close();
+            payloadLog.close();
+            recoverCompaction();
+            load();
+            log.info("Compacted vector index at {} from {} to {} nodes", path, before, index.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        int deleted = index.size() - nodesById.size();
+        if (deleted >= compactMinDeleted && deleted > index.size() * compactRatio) {
+            compact();
+        }
+    }
+
+    /**
+     * Finish a compaction that completed its staging directory, or discard one that did not
+     */
+    private void recoverCompaction() throws IOException {
+        Path staging = path.resolve(COMPACT_DIR);
+        if (!Files.exists(staging)) {
+            return;
+        }
+        if (Files.exists(staging.resolve(COMPACT_DONE))) {
+            List<String> files = new ArrayList<>(HnswIndex.FILES);
+            files.add(LOG_FILE);
+            for (String file : files) {
+                Path source = staging.resolve(file);
+                if (Files.exists(source)) {
+                    Files.move(source, path.resolve(file), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+        deleteDirectory(staging);
+    }
+
+    /**
+     * Open the index in {@link #path} and replay the payload log over it
+     */
+    private void load() throws IOException {
+        index = new HnswIndex(path, dimension, m, efConstruction);
+        ids.clear();
+        payloads.clear();
+        nodesById.clear();
+        for (int node = 0; node < index.size(); node++) {
+            ids.add(null);
+            payloads.add(null);
+        }
+        Path logFile = path.resolve(LOG_FILE);
+        if (Files.exists(logFile)) {
+            replay(logFile);
+        }
+        payloadLog = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void remove(int node) throws IOException {
+        nodesById.remove(ids.get(node));
+        payloads.set(node, null);
+        appendLog(Map.of("node", node, "deleted", true));
+    }
+
+    /**
+     * Log first: the index metadata written last decides which logged nodes exist
+     */
+    private void flush() throws IOException {
+        payloadLog.flush();
+        index.flush();
+    }
+
+    private void appendLog(Map<String, Object> entry) throws IOException {
+        payloadLog.write(OBJECT_MAPPER.writeValueAsString(entry));
+        payloadLog.newLine();
+    }
+
+    private void replay(Path logFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode entry;
+                try {
+                    entry = OBJECT_MAPPER.readTree(line);
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable vector payload log line: {}", e.getMessage());
+                    continue;
+                }
+
+                int node = entry.path("node").asInt(-1);
+                // Nodes past the saved index were lost before its metadata was written
+                if (node < 0 || node >= index.size()) {
+                    continue;
+                }
+                String previous = ids.get(node);
+                if (previous != null) {
+                    nodesById.remove(previous);
+                }
+                if (entry.path("deleted").asBoolean(false)) {
+                    payloads.set(node, null);
+                    continue;
+                }
+                String id = entry.path("id").asText();
+                ids.set(node, id);
+                payloads.set(node, OBJECT_MAPPER.convertValue(entry.path("payload"), PAYLOAD_TYPE));
+                nodesById.put(id, node);
+            }
+        }
+    }
+
+    private static boolean matches(Map<String, Object> payload, Map<String, Object> filter) {
+        for (Map.Entry<String, Object> condition : filter.entrySet()) {
+            Object value = payload.get(condition.getKey());
+            boolean match = value instanceof Collection<?> values
+                    ? values.contains(condition.getValue())
+                    : Objects.equals(value, condition.getValue());
+            if (!match) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        float norm = sum == 0 ? 1 : (float) Math.sqrt(sum);
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] / norm;
+        }
+        return unit;
+    }
+}
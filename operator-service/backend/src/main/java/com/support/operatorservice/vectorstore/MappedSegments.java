@@ -0,0 +1,72 @@
+package com.support.operatorservice.vectorstore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Growable array of fixed-size records in a memory-mapped file. The file is mapped in
+ * segments, so growing it never remaps or copies what is already there.
+ */
+final class MappedSegments implements Closeable {
+
+    private final FileChannel channel;
+    private final int recordBytes;
+    private final int recordsPerSegment;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    MappedSegments(Path file, int recordBytes, int recordsPerSegment) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.recordBytes = recordBytes;
+        this.recordsPerSegment = recordsPerSegment;
+    }
+
+    /**
+     * Make records {@code [0, count)} addressable, extending the file when needed
+     */
+    void ensureCapacity(int count) throws IOException {
+        int needed = (count + recordsPerSegment - 1) / recordsPerSegment;
+        long segmentBytes = (long) recordBytes * recordsPerSegment;
+        while (segments.size() < needed) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                    segments.size() * segmentBytes, segmentBytes);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            segments.add(segment);
+        }
+    }
+
+    /**
+     * Segment holding a record; address it with {@link #offset(int)}
+     */
+    ByteBuffer segment(int record) {
+        return segments.get(record / recordsPerSegment);
+    }
+
+    int offset(int record) {
+        return (record % recordsPerSegment) * recordBytes;
+    }
+
+    /**
+     * Write changes through to the file
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        segments.clear();
+        channel.close();
+    }
+}
@@ -0,0 +1,107 @@
+package com.support.operatorservice.vectorstore;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of graph nodes by similarity, on primitive arrays
+ */
+final class NodeQueue {
+
+    private final boolean bestFirst;
+    private int[] nodes;
+    private float[] scores;
+    private int size;
+
+    /**
+     * @param bestFirst true to pop the most similar node first, false for the least similar
+     */
+    NodeQueue(int capacity, boolean bestFirst) {
+        this.bestFirst = bestFirst;
+        this.nodes = new int[Math.max(capacity, 4)];
+        this.scores = new float[nodes.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int peekNode() {
+        return nodes[0];
+    }
+
+    float peekScore() {
+        return scores[0];
+    }
+
+    void push(int node, float score) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(score, scores[parent])) {
+                break;
+            }
+            nodes[i] = nodes[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        scores[i] = score;
+    }
+
+    /**
+     * Remove the top node
+     */
+    int pop() {
+        int top = nodes[0];
+        size--;
+        if (size > 0) {
+            int node = nodes[size];
+            float score = scores[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(scores[child + 1], scores[child])) {
+                    child++;
+                }
+                if (!before(scores[child], score)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            nodes[i] = node;
+            scores[i] = score;
+        }
+        return top;
+    }
+
+    /**
+     * Drain the queue into {@code outNodes}/{@code outScores}, most similar first
+     *
+     * @return number of nodes written
+     */
+    int drainBestFirst(int[] outNodes, float[] outScores) {
+        int count = size;
+        for (int i = bestFirst ? 0 : count - 1; bestFirst ? i < count : i >= 0; i += bestFirst ? 1 : -1) {
+            outScores[i] = peekScore();
+            outNodes[i] = pop();
+        }
+        return count;
+    }
+
+    private boolean before(float a, float b) {
+        return bestFirst ? a > b : a < b;
+    }
+}
@@ -0,0 +1,108 @@
+package com.support.operatorservice.vectorstore;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Qdrant upsert body {@code {"points": [...]}} generated while it is read, one point at a time,
+ * so a batch is never held as a whole JSON string
+ */
+final class PointsJsonStream extends InputStream {
+
+    private final List<VectorPoint> points;
+    private final Buffer buffer = new Buffer();
+    private final JsonGenerator generator;
+
+    /**
+     * Next point to write, -1 before the opening of the body
+     */
+    private int next = -1;
+    private int position;
+    private boolean finished;
+
+    PointsJsonStream(ObjectMapper objectMapper, List<VectorPoint> points) throws IOException {
+        this.points = points;
+        this.generator = objectMapper.getFactory().createGenerator(buffer);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer.bytes()[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+
+        int count = Math.min(length, buffer.size() - position);
+        System.arraycopy(buffer.bytes(), position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        generator.close();
+    }
+
+    /**
+     * Generates more of the body once the buffered part is read, false at the end of the body
+     */
+    private boolean fill() throws IOException {
+        while (position >= buffer.size()) {
+            if (finished) {
+                return false;
+            }
+            buffer.reset();
+            position = 0;
+            writeNext();
+        }
+        return true;
+    }
+
+    private void writeNext() throws IOException {
+        if (next < 0) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("points");
+            next = 0;
+        } else if (next < points.size()) {
+            VectorPoint point = points.get(next++);
+            generator.writeStartObject();
+            generator.writeStringField("id", point.id());
+            generator.writeArrayFieldStart("vector");
+            for (float value : point.vector()) {
+                generator.writeNumber(value);
+            }
+            generator.writeEndArray();
+            generator.writeFieldName("payload");
+            generator.writeObject(point.payload());
+            generator.writeEndObject();
+        } else {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            finished = true;
+        }
+        generator.flush();
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
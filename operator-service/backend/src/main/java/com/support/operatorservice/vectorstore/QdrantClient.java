@@ -0,0 +1,132 @@
+package com.support.operatorservice.vectorstore;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking client of the Qdrant REST API.
+ * <p>
+ * Requests share HTTP/2 connections and run on a fixed pool of {@code threads}. Each call has a
+ * timeout that covers the whole exchange, body included. Response bodies are read as bytes and
+ * parsed with a streaming {@link JsonParser}, never decoded into a string or a tree.
+ */
+final class QdrantClient implements AutoCloseable {
+
+    /**
+     * Reads the useful part of a response body; the parser is positioned before the first token
+     */
+    @FunctionalInterface
+    interface ResponseReader<T> {
+
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Response with a status outside 2xx
+     */
+    static final class StatusException extends IllegalStateException {
+
+        private final int statusCode;
+
+        StatusException(int statusCode, String body) {
+            super("Qdrant request failed: " + statusCode + " - " + body);
+            this.statusCode = statusCode;
+        }
+
+        int statusCode() {
+            return statusCode;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String apiKey;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    QdrantClient(ObjectMapper objectMapper, String baseUrl, String apiKey, Duration connectTimeout, int threads) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "qdrant-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Sends {@code body} as JSON, or no body if it is null
+     */
+    <T> CompletableFuture<T> send(String method, String path, Object body, Duration timeout, ResponseReader<T> reader) {
+        HttpRequest.BodyPublisher publisher;
+        if (body == null) {
+            publisher = HttpRequest.BodyPublishers.noBody();
+        } else {
+            try {
+                publisher = HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new UncheckedIOException(e));
+            }
+        }
+        return sendBody(method, path, publisher, timeout, reader);
+    }
+
+    <T> CompletableFuture<T> sendBody(String method, String path, HttpRequest.BodyPublisher body, Duration timeout,
+                                      ResponseReader<T> reader) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .method(method.toUpperCase(Locale.ROOT), body);
+        if (body.contentLength() != 0) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (apiKey != null && !apiKey.isBlank()) {
+            builder.header("api-key", apiKey);
+        }
+
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> read(response, reader))
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private <T> T read(HttpResponse<byte[]> response, ResponseReader<T> reader) {
+        byte[] body = response.body();
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new StatusException(response.statusCode(), body == null ? "" : new String(body, StandardCharsets.UTF_8));
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body == null ? new byte[0] : body)) {
+            return reader.read(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid Qdrant response", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,392 @@
+package com.support.operatorservice.vectorstore;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Vector store backed by a remote Qdrant collection over its REST API
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "vector-store.type", havingValue = "qdrant", matchIfMissing = true)
+public class QdrantVectorStore implements VectorStore {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    @Value("${qdrant.url}")
+    private String qdrantUrl;
+
+    @Value("${qdrant.api-key:}")
+    private String qdrantApiKey;
+
+    @Value("${qdrant.collection-name:knowledge_base}")
+    private String collectionName;
+
+    @Value("${vector-store.dimension:384}")
+    private int dimension;
+
+    @Value("${qdrant.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    /**
+     * Timeout of search, scroll and other calls
+     */
+    @Value("${qdrant.timeout:10s}")
+    private Duration timeout;
+
+    /**
+     * Threads that send requests and parse responses
+     */
+    @Value("${qdrant.client-threads:4}")
+    private int clientThreads;
+
+    /**
+     * Points per upsert request
+     */
+    @Value("${qdrant.upsert.batch-size:64}")
+    private int batchSize;
+
+    /**
+     * Timeout of an upsert request, which waits for the points to be indexed
+     */
+    @Value("${qdrant.upsert.timeout:60s}")
+    private Duration upsertTimeout;
+
+    /**
+     * Attempts per upsert request, including the first one
+     */
+    @Value("${qdrant.upsert.max-attempts:4}")
+    private int maxAttempts;
+
+    /**
+     * Delay before the first retry, doubled for each next one
+     */
+    @Value("${qdrant.upsert.backoff:200ms}")
+    private Duration backoff;
+
+    /**
+     * Upsert requests in flight across all uploads
+     */
+    private final Semaphore upsertPermits;
+
+    private QdrantClient client;
+    private String collectionPath;
+
+    /**
+     * Set once the collection is known to exist, cleared when a call fails
+     */
+    private volatile boolean collectionReady;
+
+    public QdrantVectorStore(@Value("${qdrant.upsert.parallelism:4}") int parallelism) {
+        this.upsertPermits = new Semaphore(Math.max(1, parallelism));
+    }
+
+    @PostConstruct
+    public void open() {
+        client = new QdrantClient(OBJECT_MAPPER, normalizeBaseUrl(), qdrantApiKey, connectTimeout, clientThreads);
+        collectionPath = "/collections/" + encode(collectionName);
+    }
+
+    @PreDestroy
+    public void close() {
+        client.close();
+    }
+
+    @Override
+    public void upsert(List<VectorPoint> points) {
+        await(upsertAsync(points));
+    }
+
+    /**
+     * Sends the points in requests of {@code qdrant.upsert.batch-size}, at most
+     * {@code qdrant.upsert.parallelism} at a time; the caller waits for a free slot before each
+     * request. Failed requests are retried with exponential backoff.
+     */
+    @Override
+    public CompletableFuture<Void> upsertAsync(List<VectorPoint> points) {
+        ensureCollection();
+
+        int size = Math.max(1, batchSize);
+        List<CompletableFuture<Void>> requests = new ArrayList<>((points.size() + size - 1) / size);
+        for (int from = 0; from < points.size(); from += size) {
+            List<VectorPoint> batch = points.subList(from, Math.min(from + size, points.size()));
+            try {
+                upsertPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                requests.add(CompletableFuture.failedFuture(new RuntimeException("Qdrant request error", e)));
+                break;
+            }
+            CompletableFuture<Void> request;
+            try {
+                request = sendPoints(batch, 1);
+            } catch (RuntimeException e) {
+                request = CompletableFuture.failedFuture(e);
+            }
+            requests.add(request.whenComplete((ignored, error) -> upsertPermits.release()));
+        }
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public List<ScoredPoint> search(float[] vector, int limit, Map<String, Object> filter) {
+        ensureCollection();
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("vector", vector);
+        body.put("limit", Math.max(1, limit));
+        body.put("with_payload", true);
+        if (!filter.isEmpty()) {
+            body.put("filter", toQdrantFilter(filter));
+        }
+
+        return await(client.send("POST", collectionPath + "/points/search", body, timeout,
+                parser -> readResult(parser, QdrantVectorStore::readScoredPoints, Collections.emptyList())));
+    }
+
+    @Override
+    public List<Map<String, Object>> scroll(int limit) {
+        ensureCollection();
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("limit", limit);
+        body.put("with_payload", true);
+        body.put("with_vector", false);
+
+        return await(client.send("POST", collectionPath + "/points/scroll", body, timeout,
+                parser -> readResult(parser, QdrantVectorStore::readScrollPayloads, Collections.emptyList())));
+    }
+
+    @Override
+    public void delete(Map<String, Object> filter) {
+        ensureCollection();
+
+        await(client.send("POST", collectionPath + "/points/delete?wait=true",
+                Map.of("filter", toQdrantFilter(filter)), timeout, parser -> null));
+    }
+
+    private void ensureCollection() {
+        if (collectionReady) {
+            return;
+        }
+
+        try {
+            await(client.send("GET", collectionPath, null, timeout, parser -> null));
+            collectionReady = true;
+            return;
+        } catch (RuntimeException ignored) {
+            // create below
+        }
+
+        Map<String, Object> createBody = Map.of(
+                "vectors", Map.of(
+                        "size", dimension,
+                        "distance", "Cosine"
+                )
+        );
+        await(client.send("PUT", collectionPath, createBody, timeout, parser -> null));
+        collectionReady = true;
+    }
+
+    private CompletableFuture<Void> sendPoints(List<VectorPoint> points, int attempt) {
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return new PointsJsonStream(OBJECT_MAPPER, points);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return client.<Void>sendBody("PUT", collectionPath + "/points?wait=true", body, upsertTimeout, parser -> null)
+                .handle((ignored, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+
+                    Throwable cause = unwrap(error);
+                    boolean retryable = cause instanceof QdrantClient.StatusException status
+                            ? status.statusCode() == 429 || status.statusCode() >= 500
+                            : cause instanceof IOException || cause instanceof TimeoutException;
+                    if (!retryable || attempt >= maxAttempts) {
+                        collectionReady = false;
+                        return CompletableFuture.<Void>failedFuture(cause);
+                    }
+
+                    long delay = backoff.toMillis() << (attempt - 1);
+                    log.warn("Qdrant upsert of {} points failed (attempt {} of {}), retrying in {} ms: {}",
+                            points.size(), attempt, maxAttempts, delay, cause.toString());
+                    return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                            .thenCompose(none -> sendPoints(points, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Waits for a call; failures are rethrown as runtime exceptions
+     */
+    private <T> T await(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            collectionReady = false;
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof TimeoutException) {
+                throw new RuntimeException("Qdrant request timed out", cause);
+            }
+            throw new RuntimeException("Qdrant request error", cause);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Reads the {@code result} field of a response and skips the rest
+     */
+    private static <T> T readResult(JsonParser parser, QdrantClient.ResponseReader<T> resultReader,
+                                    T missing) throws IOException {
+        T result = missing;
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return missing;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("result".equals(field)) {
+                result = resultReader.read(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private static List<ScoredPoint> readScoredPoints(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return Collections.emptyList();
+        }
+
+        List<ScoredPoint> results = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String id = null;
+            double score = 0;
+            Map<String, Object> payload = Collections.emptyMap();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> id = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "score" -> score = parser.getValueAsDouble();
+                    case "payload" -> payload = readPayload(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            results.add(new ScoredPoint(id, score, payload));
+        }
+        return results;
+    }
+
+    /**
+     * Payloads of {@code result.points}, or of {@code result} itself if it is an array
+     */
+    private static List<Map<String, Object>> readScrollPayloads(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            return readPointPayloads(parser);
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return Collections.emptyList();
+        }
+
+        List<Map<String, Object>> payloads = Collections.emptyList();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("points".equals(field) && value == JsonToken.START_ARRAY) {
+                payloads = readPointPayloads(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return payloads;
+    }
+
+    private static List<Map<String, Object>> readPointPayloads(JsonParser parser) throws IOException {
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            Map<String, Object> payload = Collections.emptyMap();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("payload".equals(field)) {
+                    payload = readPayload(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            payloads.add(payload);
+        }
+        return payloads;
+    }
+
+    private static Map<String, Object> readPayload(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return Collections.emptyMap();
+        }
+        return OBJECT_MAPPER.readValue(parser, PAYLOAD_TYPE);
+    }
+
+    private static Map<String, Object> toQdrantFilter(Map<String, Object> filter) {
+        List<Map<String, Object>> must = new ArrayList<>(filter.size());
+        filter.forEach((key, value) -> must.add(Map.of(
+                "key", key,
+                "match", Map.of("value", value)
+        )));
+        return Map.of("must", must);
+    }
+
+    private String normalizeBaseUrl() {
+        String url = qdrantUrl == null ? "" : qdrantUrl.trim();
+        while (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+
+    private String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,9 @@
+package com.support.operatorservice.vectorstore;
+
+import java.util.Map;
+
+/**
+ * Search hit with its cosine similarity to the query
+ */
+public record ScoredPoint(String id, double score, Map<String, Object> payload) {
+}
@@ -0,0 +1,9 @@
+package com.support.operatorservice.vectorstore;
+
+import java.util.Map;
+
+/**
+ * Point to store: chunk vector and its payload
+ */
+public record VectorPoint(String id, float[] vector, Map<String, Object> payload) {
+}
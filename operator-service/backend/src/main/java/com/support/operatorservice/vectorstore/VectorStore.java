@@ -0,0 +1,49 @@
+package com.support.operatorservice.vectorstore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage and nearest-neighbour search of knowledge base chunk vectors.
+ * <p>
+ * Vectors are compared by cosine similarity. Filters are exact matches on payload keys,
+ * all of which must match; a list payload value matches when it contains the value.
+ */
+public interface VectorStore {
+
+    /**
+     * Insert points, replacing points with the same id
+     */
+    void upsert(List<VectorPoint> points);
+
+    /**
+     * Insert points without waiting for the store to confirm them. The caller may still be held
+     * back while too many writes are in flight.
+     */
+    default CompletableFuture<Void> upsertAsync(List<VectorPoint> points) {
+        try {
+            upsert(points);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Most similar points, best first
+     *
+     * @param filter payload matches, empty for none
+     */
+    List<ScoredPoint> search(float[] vector, int limit, Map<String, Object> filter);
+
+    /**
+     * Payloads of stored points, at most {@code limit}
+     */
+    List<Map<String, Object>> scroll(int limit);
+
+    /**
+     * Delete all points whose payload matches the filter
+     */
+    void delete(Map<String, Object> filter);
+}
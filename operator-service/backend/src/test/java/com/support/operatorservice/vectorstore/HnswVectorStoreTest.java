@@ -0,0 +1,222 @@
+package com.support.operatorservice.vectorstore;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswVectorStoreTest {
+
+    private static final int DIMENSION = 32;
+    private static final int POINTS = 2000;
+    private static final int K = 10;
+
+    @TempDir
+    Path dir;
+
+    private final List<HnswVectorStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() throws Exception {
+        for (HnswVectorStore store : opened) {
+            store.close();
+        }
+    }
+
+    @Test
+    void testRecallAgainstBruteForce() throws Exception {
+        HnswVectorStore store = open();
+        List<VectorPoint> points = randomPoints(POINTS, new Random(1));
+        store.upsert(points);
+
+        double recall = recall(store, points, Map.of(), new Random(2));
+        assertTrue(recall >= 0.95, "Recall@" + K + " " + recall);
+    }
+
+    @Test
+    void testFilteredSearchReturnsOnlyMatchingPoints() throws Exception {
+        HnswVectorStore store = open();
+        List<VectorPoint> points = randomPoints(POINTS, new Random(3));
+        store.upsert(points);
+
+        Map<String, Object> filter = Map.of("category", "c1");
+        Random random = new Random(4);
+        for (int q = 0; q < 20; q++) {
+            for (ScoredPoint hit : store.search(randomVector(random), K, filter)) {
+                assertEquals("c1", hit.payload().get("category"));
+            }
+        }
+        assertTrue(recall(store, points, filter, new Random(5)) >= 0.9);
+
+        // Tags are lists; a filter value matches any element
+        List<ScoredPoint> tagged = store.search(randomVector(random), K, Map.of("tags", "t2"));
+        assertEquals(K, tagged.size());
+        for (ScoredPoint hit : tagged) {
+            assertTrue(((List<?>) hit.payload().get("tags")).contains("t2"));
+        }
+    }
+
+    @Test
+    void testReopenAfterFlushKeepsPointsAndDeletes() throws Exception {
+        HnswVectorStore store = open();
+        List<VectorPoint> points = randomPoints(500, new Random(6));
+        store.upsert(points);
+        store.delete(Map.of("category", "c0"));
+
+        float[] query = randomVector(new Random(7));
+        List<String> before = idsOf(store.search(query, K, Map.of()));
+        store.close();
+        opened.remove(store);
+
+        HnswVectorStore reopened = open();
+        assertEquals(before, idsOf(reopened.search(query, K, Map.of())));
+        assertTrue(reopened.search(query, K, Map.of("category", "c0")).isEmpty());
+        long live = points.stream().filter(p -> !"c0".equals(p.payload().get("category"))).count();
+        assertEquals(live, reopened.scroll(Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void testCompactionDropsTombstonesAndRewritesLog() throws Exception {
+        HnswVectorStore store = open();
+        ReflectionTestUtils.setField(store, "compactMinDeleted", 100);
+        List<VectorPoint> points = randomPoints(POINTS, new Random(8));
+        store.upsert(points);
+
+        // A third of the points is over the 0.3 threshold
+        store.delete(Map.of("category", "c0"));
+        List<VectorPoint> live = points.stream().filter(p -> !"c0".equals(p.payload().get("category"))).toList();
+        assertEquals(live.size(), store.nodeCount());
+        assertEquals(live.size(), Files.readAllLines(dir.resolve("payloads.jsonl")).size());
+        assertFalse(Files.exists(dir.resolve("compacting")));
+        assertTrue(recall(store, live, Map.of(), new Random(9)) >= 0.95);
+
+        float[] query = randomVector(new Random(10));
+        List<String> before = idsOf(store.search(query, K, Map.of()));
+        store.close();
+        opened.remove(store);
+
+        HnswVectorStore reopened = open();
+        assertEquals(live.size(), reopened.nodeCount());
+        assertEquals(before, idsOf(reopened.search(query, K, Map.of())));
+    }
+
+    @Test
+    void testOpenFinishesOrDiscardsStagedCompaction(@TempDir Path other) throws Exception {
+        HnswVectorStore store = open(dir);
+        store.upsert(randomPoints(300, new Random(11)));
+        store.close();
+        opened.remove(store);
+
+        // Staging without the completion marker is left over from a crash mid-build
+        Path staging = Files.createDirectories(dir.resolve("compacting"));
+        Files.writeString(staging.resolve("payloads.jsonl"), "");
+        store = open(dir);
+        assertEquals(300, store.scroll(Integer.MAX_VALUE).size());
+        assertFalse(Files.exists(staging));
+        store.close();
+        opened.remove(store);
+
+        // A finished staging directory replaces the live files
+        HnswVectorStore source = open(other);
+        source.upsert(randomPoints(100, new Random(12)));
+        source.close();
+        opened.remove(source);
+        Files.createDirectories(staging);
+        for (String file : List.of("graph.meta", "vectors.bin", "links.bin", "payloads.jsonl")) {
+            Files.copy(other.resolve(file), staging.resolve(file));
+        }
+        Files.createFile(staging.resolve("DONE"));
+
+        store = open(dir);
+        assertEquals(100, store.nodeCount());
+        assertEquals(100, store.scroll(Integer.MAX_VALUE).size());
+        assertFalse(Files.exists(staging));
+    }
+
+    private HnswVectorStore open() throws Exception {
+        return open(dir);
+    }
+
+    private HnswVectorStore open(Path path) throws Exception {
+        HnswVectorStore store = new HnswVectorStore();
+        ReflectionTestUtils.setField(store, "path", path);
+        ReflectionTestUtils.setField(store, "dimension", DIMENSION);
+        ReflectionTestUtils.setField(store, "m", 16);
+        ReflectionTestUtils.setField(store, "efConstruction", 100);
+        ReflectionTestUtils.setField(store, "efSearch", 64);
+        ReflectionTestUtils.setField(store, "compactRatio", 0.3);
+        ReflectionTestUtils.setField(store, "compactMinDeleted", 1000);
+        store.open();
+        opened.add(store);
+        return store;
+    }
+
+    /**
+     * Share of the exact top K, by cosine similarity over the accepted points, found by the index
+     */
+    private static double recall(HnswVectorStore store, List<VectorPoint> points, Map<String, Object> filter,
+                                 Random random) {
+        int found = 0;
+        int expected = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomVector(random);
+            Set<String> exact = new HashSet<>(points.stream()
+                    .filter(p -> filter.entrySet().stream()
+                            .allMatch(c -> c.getValue().equals(p.payload().get(c.getKey()))))
+                    .sorted(Comparator.comparingDouble((VectorPoint p) -> -cosine(query, p.vector())))
+                    .limit(K)
+                    .map(VectorPoint::id)
+                    .toList());
+            for (ScoredPoint hit : store.search(query, K, filter)) {
+                if (exact.contains(hit.id())) {
+                    found++;
+                }
+            }
+            expected += exact.size();
+        }
+        return (double) found / expected;
+    }
+
+    private static List<VectorPoint> randomPoints(int count, Random random) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new VectorPoint("p" + i, randomVector(random), Map.of(
+                        "category", "c" + (i % 3),
+                        "tags", List.of("t" + (i % 5), "t" + (i % 7)))))
+                .toList();
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, na = 0, nb = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            na += a[i] * a[i];
+            nb += b[i] * b[i];
+        }
+        return dot / Math.sqrt(na * nb);
+    }
+
+    private static List<String> idsOf(List<ScoredPoint> hits) {
+        return hits.stream().map(ScoredPoint::id).toList();
+    }
+}